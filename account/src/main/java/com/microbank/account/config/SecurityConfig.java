@@ -27,7 +27,10 @@ public class SecurityConfig {
                         .requestMatchers(HttpMethod.POST,   "/api/v1/accounts").hasRole("USER")
 //                        .requestMatchers(HttpMethod.PUT,    "/api/v1/accounts/accounts/balance").hasRole("USER")
                         .requestMatchers(HttpMethod.PUT,    "/api/v1/accounts/accounts/balance").permitAll()
+                        .requestMatchers(HttpMethod.PUT,    "/api/v1/accounts/balance/transfer").hasRole("USER")
+                        .requestMatchers(HttpMethod.PUT,    "/api/v1/accounts/balance/transfer/batch").hasRole("USER")
                         .requestMatchers(HttpMethod.GET,    "/api/v1/accounts").hasRole("USER")
+                        .requestMatchers(HttpMethod.POST,   "/api/v1/accounts/lookup").hasRole("USER")
                         .requestMatchers(HttpMethod.GET,    "/api/v1/accounts/{accountId}").hasRole("USER")
                         .requestMatchers(HttpMethod.DELETE, "/api/v1/accounts/{accountId}").hasRole("USER")
 
@@ -38,6 +41,8 @@ public class SecurityConfig {
                         .requestMatchers(HttpMethod.GET,    "/api/v1/admin/accounts/{accountId}").hasRole("ADMIN")
                         .requestMatchers(HttpMethod.GET,    "/api/v1/admin/users/{userId}/accounts").hasRole("ADMIN")
                         .requestMatchers(HttpMethod.PATCH,  "/api/v1/admin/accounts/{accountId}/status").hasRole("ADMIN")
+                        .requestMatchers(HttpMethod.PATCH,  "/api/v1/accounts/admin/accounts/balance-shards").hasRole("ADMIN")
+                        .requestMatchers(HttpMethod.POST,   "/api/v1/accounts/admin/accounts/lookup").hasRole("ADMIN")
                         .requestMatchers(HttpMethod.DELETE, "/api/v1/admin/accounts/{accountId}").hasRole("ADMIN")
 
                         // Feign Permissions
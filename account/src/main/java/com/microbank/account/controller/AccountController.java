@@ -1,9 +1,15 @@
 package com.microbank.account.controller;
 
+import com.microbank.account.dto.request.AccountLookupRequest;
+import com.microbank.account.dto.request.BatchTransferBalanceRequest;
 import com.microbank.account.dto.request.CreateAccountRequest;
+import com.microbank.account.dto.request.TransferBalanceRequest;
 import com.microbank.account.dto.request.UpdateAccountStatusRequest;
+import com.microbank.account.dto.request.UpdateBalanceShardsRequest;
 import com.microbank.account.dto.request.UpdateBalanceRequest;
 import com.microbank.account.dto.response.AccountResponse;
+import com.microbank.account.dto.response.TransferBalanceItemResponse;
+import com.microbank.account.dto.response.TransferBalanceResponse;
 import com.microbank.account.response.BaseApiResponse;
 import com.microbank.account.service.AccountService;
 import jakarta.validation.Valid;
@@ -37,6 +43,18 @@ public class AccountController {
         return ResponseEntity.status(response.getStatus()).body(response);
     }
 
+    @PutMapping("/balance/transfer")
+    public ResponseEntity<BaseApiResponse<TransferBalanceResponse>> transferBalance(@RequestBody @Valid TransferBalanceRequest request) {
+        BaseApiResponse<TransferBalanceResponse> response = accountService.transferBalance(request);
+        return ResponseEntity.status(response.getStatus()).body(response);
+    }
+
+    @PutMapping("/balance/transfer/batch")
+    public ResponseEntity<BaseApiResponse<List<TransferBalanceItemResponse>>> transferBalances(@RequestBody @Valid BatchTransferBalanceRequest request) {
+        BaseApiResponse<List<TransferBalanceItemResponse>> response = accountService.transferBalances(request);
+        return ResponseEntity.status(response.getStatus()).body(response);
+    }
+
     @GetMapping
     @PreAuthorize("hasRole('USER')")
     public ResponseEntity<BaseApiResponse<List<AccountResponse>>> getCurrentUsersAccounts() {
@@ -51,6 +69,13 @@ public class AccountController {
         return ResponseEntity.status(response.getStatus()).body(response);
     }
 
+    @PostMapping("/lookup")
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<BaseApiResponse<List<AccountResponse>>> lookupCurrentUsersAccounts(@RequestBody AccountLookupRequest request) {
+        BaseApiResponse<List<AccountResponse>> response = accountService.lookupCurrentUsersAccounts(request);
+        return ResponseEntity.status(response.getStatus()).body(response);
+    }
+
     @GetMapping("/{accountId}/iban")
     @PreAuthorize("hasRole('USER')")
     public ResponseEntity<BaseApiResponse<String>> getIbanByAccountId(@PathVariable UUID accountId) {
@@ -80,6 +105,13 @@ public class AccountController {
         return ResponseEntity.status(response.getStatus()).body(response);
     }
 
+    @PostMapping("/admin/accounts/lookup")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<BaseApiResponse<List<AccountResponse>>> lookupAccounts(@RequestBody AccountLookupRequest request) {
+        BaseApiResponse<List<AccountResponse>> response = accountService.lookupAccounts(request);
+        return ResponseEntity.status(response.getStatus()).body(response);
+    }
+
     @GetMapping("/admin/users/{userId}/accounts")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<BaseApiResponse<List<AccountResponse>>> getAccountsByUserId(@PathVariable UUID userId) {
@@ -94,6 +126,13 @@ public class AccountController {
         return ResponseEntity.status(response.getStatus()).body(response);
     }
 
+    @PatchMapping("/admin/accounts/balance-shards")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<BaseApiResponse<AccountResponse>> updateBalanceShards(@RequestBody @Valid UpdateBalanceShardsRequest request) {
+        BaseApiResponse<AccountResponse> response = accountService.updateBalanceShards(request);
+        return ResponseEntity.status(response.getStatus()).body(response);
+    }
+
     @DeleteMapping("/admin/accounts/{accountId}")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<BaseApiResponse<String>> deleteAccount(@PathVariable UUID accountId) {
@@ -0,0 +1,22 @@
+package com.microbank.account.dto.request;
+
+import java.util.List;
+import java.util.UUID;
+
+public record AccountLookupRequest(
+
+        List<UUID> ids,
+
+        List<String> ibans
+
+) {
+
+    public List<UUID> idsOrEmpty() {
+        return ids == null ? List.of() : ids;
+    }
+
+    public List<String> ibansOrEmpty() {
+        return ibans == null ? List.of() : ibans;
+    }
+
+}
@@ -0,0 +1,14 @@
+package com.microbank.account.dto.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+
+import java.util.List;
+
+public record BatchTransferBalanceRequest(
+
+        @NotEmpty(message = "Transfers cannot be empty")
+        List<@Valid TransferBalanceRequest> transfers
+
+) {
+}
@@ -0,0 +1,26 @@
+package com.microbank.account.dto.request;
+
+import jakarta.annotation.Nullable;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotNull;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+public record TransferBalanceRequest(
+
+        @NotNull(message = "Sender account ID cannot be empty")
+        UUID senderAccountId,
+
+        @Nullable
+        UUID receiverAccountId,
+
+        @Nullable
+        String receiverAccountIban,
+
+        @NotNull(message = "Amount cannot be empty")
+        @DecimalMin(value = "0.01", message = "Amount must be at least 0.01")
+        BigDecimal amount
+
+) {
+}
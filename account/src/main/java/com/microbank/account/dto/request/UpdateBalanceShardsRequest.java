@@ -0,0 +1,17 @@
+package com.microbank.account.dto.request;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.UUID;
+
+public record UpdateBalanceShardsRequest(
+
+        @NotNull(message = "Account ID cannot be empty")
+        UUID accountId,
+
+        @Min(value = 0, message = "Shard count cannot be negative")
+        int shards
+
+) {
+}
@@ -0,0 +1,10 @@
+package com.microbank.account.dto.response;
+
+public record TransferBalanceItemResponse(
+        int index,
+        boolean success,
+        String error,
+        AccountResponse senderAccount,
+        AccountResponse receiverAccount
+) {
+}
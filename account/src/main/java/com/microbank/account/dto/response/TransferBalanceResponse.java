@@ -0,0 +1,7 @@
+package com.microbank.account.dto.response;
+
+public record TransferBalanceResponse(
+        AccountResponse senderAccount,
+        AccountResponse receiverAccount
+) {
+}
@@ -1,6 +1,7 @@
 package com.microbank.account.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.math.BigDecimal;
 import java.util.UUID;
@@ -31,6 +32,15 @@ public class Account {
     @Column(nullable = false)
     private String ownerEmail;
 
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private int balanceShards;
+
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private long version;
+
     public Account() {}
 
     public Account(UUID id, String IBAN, BigDecimal balance, boolean isBlocked, String ownerName, UUID ownerId, String ownerEmail) {
@@ -99,4 +109,20 @@ public class Account {
         this.ownerEmail = ownerEmail;
     }
 
+    public int getBalanceShards() {
+        return balanceShards;
+    }
+
+    public void setBalanceShards(int balanceShards) {
+        this.balanceShards = balanceShards;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
 }
\ No newline at end of file
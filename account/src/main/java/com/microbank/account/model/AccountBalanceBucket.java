@@ -0,0 +1,69 @@
+package com.microbank.account.model;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+@Entity
+@Table(
+        name = "account_balance_buckets",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"accountId", "bucketIndex"})
+)
+public class AccountBalanceBucket {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(nullable = false)
+    private UUID accountId;
+
+    @Column(nullable = false)
+    private int bucketIndex;
+
+    @Column(nullable = false)
+    private BigDecimal balance;
+
+    public AccountBalanceBucket() {}
+
+    public AccountBalanceBucket(UUID id, UUID accountId, int bucketIndex, BigDecimal balance) {
+        this.id = id;
+        this.accountId = accountId;
+        this.bucketIndex = bucketIndex;
+        this.balance = balance;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public void setId(UUID id) {
+        this.id = id;
+    }
+
+    public UUID getAccountId() {
+        return accountId;
+    }
+
+    public void setAccountId(UUID accountId) {
+        this.accountId = accountId;
+    }
+
+    public int getBucketIndex() {
+        return bucketIndex;
+    }
+
+    public void setBucketIndex(int bucketIndex) {
+        this.bucketIndex = bucketIndex;
+    }
+
+    public BigDecimal getBalance() {
+        return balance;
+    }
+
+    public void setBalance(BigDecimal balance) {
+        this.balance = balance;
+    }
+
+}
@@ -0,0 +1,6 @@
+package com.microbank.account.model.enums;
+
+public enum BalanceLockingMode {
+    PESSIMISTIC,
+    OPTIMISTIC
+}
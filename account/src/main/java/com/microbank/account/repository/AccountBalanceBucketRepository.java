@@ -0,0 +1,50 @@
+package com.microbank.account.repository;
+
+import com.microbank.account.model.AccountBalanceBucket;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+public interface AccountBalanceBucketRepository extends JpaRepository<AccountBalanceBucket, UUID> {
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE AccountBalanceBucket b SET b.balance = b.balance + :amount " +
+            "WHERE b.accountId = :accountId AND b.bucketIndex = :bucketIndex")
+    int addToBucket(
+            @Param("accountId") UUID accountId,
+            @Param("bucketIndex") int bucketIndex,
+            @Param("amount") BigDecimal amount
+    );
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM AccountBalanceBucket b WHERE b.accountId = :accountId ORDER BY b.bucketIndex")
+    List<AccountBalanceBucket> findAllByAccountIdForUpdate(@Param("accountId") UUID accountId);
+
+    @Query("SELECT COALESCE(SUM(b.balance), 0) FROM AccountBalanceBucket b WHERE b.accountId = :accountId")
+    BigDecimal sumBalanceByAccountId(@Param("accountId") UUID accountId);
+
+    @Query("SELECT b.accountId AS accountId, SUM(b.balance) AS balance FROM AccountBalanceBucket b " +
+            "WHERE b.accountId IN :accountIds GROUP BY b.accountId")
+    List<BucketTotal> sumBalanceByAccountIdIn(@Param("accountIds") Collection<UUID> accountIds);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM AccountBalanceBucket b WHERE b.accountId = :accountId")
+    void deleteAllByAccountId(@Param("accountId") UUID accountId);
+
+    interface BucketTotal {
+        UUID getAccountId();
+        BigDecimal getBalance();
+    }
+
+}
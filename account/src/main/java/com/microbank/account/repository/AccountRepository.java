@@ -1,8 +1,13 @@
 package com.microbank.account.repository;
 
 import com.microbank.account.model.Account;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -11,5 +16,13 @@ public interface AccountRepository extends JpaRepository<Account, UUID> {
 
     List<Account> findAllByOwnerId(UUID ownerId);
     Optional<Account> findByIBAN(String iban);
+    List<Account> findAllByIBANIn(Collection<String> ibans);
+
+    @Query("SELECT a FROM Account a WHERE a.id IN :ids OR a.IBAN IN :ibans")
+    List<Account> findAllByIdInOrIBANIn(@Param("ids") Collection<UUID> ids, @Param("ibans") Collection<String> ibans);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM Account a WHERE a.id = :id")
+    Optional<Account> findByIdForUpdate(@Param("id") UUID id);
 
 }
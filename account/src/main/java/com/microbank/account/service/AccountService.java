@@ -1,9 +1,15 @@
 package com.microbank.account.service;
 
+import com.microbank.account.dto.request.AccountLookupRequest;
+import com.microbank.account.dto.request.BatchTransferBalanceRequest;
 import com.microbank.account.dto.request.CreateAccountRequest;
+import com.microbank.account.dto.request.TransferBalanceRequest;
 import com.microbank.account.dto.request.UpdateAccountStatusRequest;
+import com.microbank.account.dto.request.UpdateBalanceShardsRequest;
 import com.microbank.account.dto.request.UpdateBalanceRequest;
 import com.microbank.account.dto.response.AccountResponse;
+import com.microbank.account.dto.response.TransferBalanceItemResponse;
+import com.microbank.account.dto.response.TransferBalanceResponse;
 import com.microbank.account.response.BaseApiResponse;
 
 import java.util.List;
@@ -13,8 +19,11 @@ public interface AccountService {
 
     BaseApiResponse<AccountResponse> createAccount(CreateAccountRequest request);
     BaseApiResponse<AccountResponse> updateAccountBalance(UpdateBalanceRequest request);
+    BaseApiResponse<TransferBalanceResponse> transferBalance(TransferBalanceRequest request);
+    BaseApiResponse<List<TransferBalanceItemResponse>> transferBalances(BatchTransferBalanceRequest request);
     BaseApiResponse<List<AccountResponse>> getCurrentUsersAccounts();
     BaseApiResponse<AccountResponse> getCurrentUsersAccountById(UUID accountId);
+    BaseApiResponse<List<AccountResponse>> lookupCurrentUsersAccounts(AccountLookupRequest request);
     BaseApiResponse<String> deleteOwnAccount(UUID accountId);
 
     BaseApiResponse<String> getIbanByAccountId(UUID accountId);
@@ -23,7 +32,9 @@ public interface AccountService {
     BaseApiResponse<List<AccountResponse>> getAllAccounts();
     BaseApiResponse<List<AccountResponse>> getAccountsByUserId(UUID userId);
     BaseApiResponse<AccountResponse> getAccountById(UUID accountId);
+    BaseApiResponse<List<AccountResponse>> lookupAccounts(AccountLookupRequest request);
     BaseApiResponse<AccountResponse> updateAccountStatus(UpdateAccountStatusRequest request);
+    BaseApiResponse<AccountResponse> updateBalanceShards(UpdateBalanceShardsRequest request);
     BaseApiResponse<String> deleteAccount(UUID accountId);
 
 }
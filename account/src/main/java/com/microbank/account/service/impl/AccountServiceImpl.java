@@ -1,26 +1,36 @@
 package com.microbank.account.service.impl;
 
+import com.microbank.account.dto.request.AccountLookupRequest;
+import com.microbank.account.dto.request.BatchTransferBalanceRequest;
 import com.microbank.account.dto.request.CreateAccountRequest;
+import com.microbank.account.dto.request.TransferBalanceRequest;
 import com.microbank.account.dto.request.UpdateAccountStatusRequest;
+import com.microbank.account.dto.request.UpdateBalanceShardsRequest;
 import com.microbank.account.dto.request.UpdateBalanceRequest;
 import com.microbank.account.dto.response.AccountResponse;
+import com.microbank.account.dto.response.TransferBalanceItemResponse;
+import com.microbank.account.dto.response.TransferBalanceResponse;
 import com.microbank.account.exceptions.CustomException;
 import com.microbank.account.exceptions.NotFoundException;
 import com.microbank.account.exceptions.UnauthorizedException;
-import com.microbank.account.feign.AuthServiceClient;
 import com.microbank.account.model.Account;
 import com.microbank.account.repository.AccountRepository;
 import com.microbank.account.response.BaseApiResponse;
 import com.microbank.account.service.AccountService;
+import com.microbank.account.service.utils.AccountCache;
+import com.microbank.account.service.utils.AccountLockManager;
 import com.microbank.account.service.utils.AccountResponseBuilder;
+import com.microbank.account.service.utils.CurrentUserResolver;
+import com.microbank.account.service.utils.IbanGenerator;
+import com.microbank.account.service.utils.ShardedBalanceManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
-import java.util.List;
-import java.util.UUID;
+import java.util.*;
 
 @Service
 public class AccountServiceImpl implements AccountService {
@@ -28,36 +38,47 @@ public class AccountServiceImpl implements AccountService {
     private static final Logger log = LoggerFactory.getLogger(AccountServiceImpl.class);
 
     private final AccountRepository accountRepository;
-    private final AuthServiceClient authServiceClient;
+    private final CurrentUserResolver currentUserResolver;
     private final AccountResponseBuilder accountResponseBuilder;
+    private final AccountLockManager accountLockManager;
+    private final ShardedBalanceManager shardedBalanceManager;
+    private final AccountCache accountCache;
+    private final IbanGenerator ibanGenerator;
+
+    @Value("${account.balance.sharding.max-shards:64}")
+    private int maxBalanceShards;
+
+    @Value("${account.balance.batch.max-size:500}")
+    private int maxBatchSize;
+
+    @Value("${account.lookup.max-size:500}")
+    private int maxLookupSize;
 
     public AccountServiceImpl(
             AccountRepository accountRepository,
-            AuthServiceClient authServiceClient,
-            AccountResponseBuilder accountResponseBuilder
+            CurrentUserResolver currentUserResolver,
+            AccountResponseBuilder accountResponseBuilder,
+            AccountLockManager accountLockManager,
+            ShardedBalanceManager shardedBalanceManager,
+            AccountCache accountCache,
+            IbanGenerator ibanGenerator
     ) {
         this.accountRepository = accountRepository;
-        this.authServiceClient = authServiceClient;
+        this.currentUserResolver = currentUserResolver;
         this.accountResponseBuilder = accountResponseBuilder;
-    }
-
-    private static String generateIBAN() {
-        return "MB" + (100000000000L + (long) (Math.random() * 899999999999L));
+        this.accountLockManager = accountLockManager;
+        this.shardedBalanceManager = shardedBalanceManager;
+        this.accountCache = accountCache;
+        this.ibanGenerator = ibanGenerator;
     }
 
     @Override
     public BaseApiResponse<AccountResponse> createAccount(CreateAccountRequest request) {
-        try {
-            var userResponse = authServiceClient.getCurrentUser();
-
-            if (userResponse == null || userResponse.getData() == null) {
-                return new BaseApiResponse<>(HttpStatus.UNAUTHORIZED.value(), "User not authenticated.", null);
-            }
-
-            var user = userResponse.getData();
+        var user = currentUserResolver.getCurrentUser();
 
+        try {
             Account account = new Account();
-            account.setIBAN(generateIBAN());
+            account.setIBAN(ibanGenerator.nextIban());
             account.setOwnerName((user.firstName() + " " + user.lastName()).toUpperCase());
             account.setBalance(request.initialBalance());
             account.setOwnerId(user.id());
@@ -84,36 +105,259 @@ public class AccountServiceImpl implements AccountService {
         Account account = accountRepository.findById(request.accountId())
                 .orElseThrow(() -> new NotFoundException("Account not found with ID: " + request.accountId()));
 
-        if (account.isBlocked()) {
-            throw new CustomException("This account is blocked.");
+        if (request.isDeposit() && shardedBalanceManager.isSharded(account)) {
+            // Deposits into sharded accounts only touch a bucket row and skip the account row lock
+            if (account.isBlocked()) {
+                throw new CustomException("This account is blocked.");
+            }
+            shardedBalanceManager.credit(account, request.amount());
+        } else {
+            account = accountLockManager.withLockedAccounts(List.of(request.accountId()), accounts -> {
+                Account locked = accounts.get(request.accountId());
+
+                if (locked.isBlocked()) {
+                    throw new CustomException("This account is blocked.");
+                }
+
+                if (request.isDeposit()) {
+                    shardedBalanceManager.credit(locked, request.amount());
+                } else {
+                    shardedBalanceManager.debit(locked, request.amount());
+                }
+
+                return accountRepository.save(locked);
+            });
         }
+        accountCache.evictBalances(List.of(request.accountId()));
 
-        BigDecimal newBalance = request.isDeposit()
-                ? account.getBalance().add(request.amount())
-                : account.getBalance().subtract(request.amount());
+        AccountResponse response = accountResponseBuilder.buildAccountResponse(account);
+        return new BaseApiResponse<>(
+                HttpStatus.OK.value(),
+                "Account balance updated successfully.",
+                response
+        );
+    }
 
-        if (newBalance.compareTo(BigDecimal.ZERO) < 0) {
-            throw new CustomException("Insufficient balance");
+    @Override
+    public BaseApiResponse<TransferBalanceResponse> transferBalance(TransferBalanceRequest request) {
+        var user = currentUserResolver.getCurrentUser();
+        UUID senderAccountId = request.senderAccountId();
+        Account receiverAccount = resolveReceiverAccount(request);
+        UUID receiverAccountId = receiverAccount.getId();
+
+        if (senderAccountId.equals(receiverAccountId)) {
+            throw new CustomException("Sender and receiver accounts must be different.");
         }
 
-        account.setBalance(newBalance);
-        accountRepository.save(account);
+        boolean shardedCredit = shardedBalanceManager.isSharded(receiverAccount);
+        List<UUID> lockedIds = shardedCredit
+                ? List.of(senderAccountId)
+                : List.of(senderAccountId, receiverAccountId);
+
+        TransferBalanceResponse response = accountLockManager.withLockedAccounts(lockedIds, accounts -> {
+            Account sender = accounts.get(senderAccountId);
+            Account receiver = shardedCredit
+                    ? accountRepository.findById(receiverAccountId)
+                            .orElseThrow(() -> new NotFoundException("Account not found with ID: " + receiverAccountId))
+                    : accounts.get(receiverAccountId);
+
+            if (!sender.getOwnerId().equals(user.id())) {
+                throw new UnauthorizedException("Source account does not belong to the current user.");
+            }
+
+            if (sender.isBlocked()) {
+                throw new CustomException("Sender account is blocked.");
+            }
+
+            if (receiver.isBlocked()) {
+                throw new CustomException("Receiver account is blocked.");
+            }
+
+            shardedBalanceManager.debit(sender, request.amount());
+            shardedBalanceManager.credit(receiver, request.amount());
+            accountRepository.saveAll(List.of(sender, receiver));
+
+            return new TransferBalanceResponse(
+                    accountResponseBuilder.buildAccountResponse(sender),
+                    accountResponseBuilder.buildAccountResponse(receiver)
+            );
+        });
+        accountCache.evictBalances(List.of(senderAccountId, receiverAccountId));
+
+        return new BaseApiResponse<>(
+                HttpStatus.OK.value(),
+                "Balance transferred successfully.",
+                response
+        );
+    }
+
+    @Override
+    public BaseApiResponse<List<TransferBalanceItemResponse>> transferBalances(BatchTransferBalanceRequest request) {
+        List<TransferBalanceRequest> transfers = request.transfers();
+        if (transfers.size() > maxBatchSize) {
+            throw new CustomException("A batch cannot contain more than " + maxBatchSize + " transfers.");
+        }
+        var user = currentUserResolver.getCurrentUser();
+
+        // Resolve every account referenced by the batch with two IN queries instead of one lookup per item
+        Set<String> receiverIbans = new HashSet<>();
+        Set<UUID> referencedIds = new HashSet<>();
+        for (TransferBalanceRequest transfer : transfers) {
+            referencedIds.add(transfer.senderAccountId());
+            if (transfer.receiverAccountId() != null) {
+                referencedIds.add(transfer.receiverAccountId());
+            } else if (transfer.receiverAccountIban() != null) {
+                receiverIbans.add(transfer.receiverAccountIban());
+            }
+        }
+
+        Map<UUID, Account> accountsById = new HashMap<>();
+        Map<String, UUID> accountIdsByIban = new HashMap<>();
+        for (Account account : accountRepository.findAllById(referencedIds)) {
+            accountsById.put(account.getId(), account);
+        }
+        if (!receiverIbans.isEmpty()) {
+            for (Account account : accountRepository.findAllByIBANIn(receiverIbans)) {
+                accountsById.put(account.getId(), account);
+                accountIdsByIban.put(account.getIBAN(), account.getId());
+            }
+        }
+
+        TransferBalanceItemResponse[] rejected = new TransferBalanceItemResponse[transfers.size()];
+        UUID[] receiverIds = new UUID[transfers.size()];
+        Set<UUID> lockedIds = new HashSet<>();
+
+        for (int i = 0; i < transfers.size(); i++) {
+            TransferBalanceRequest transfer = transfers.get(i);
+            UUID receiverId = transfer.receiverAccountId() != null
+                    ? transfer.receiverAccountId()
+                    : accountIdsByIban.get(transfer.receiverAccountIban());
+
+            String error = null;
+            if (!accountsById.containsKey(transfer.senderAccountId())) {
+                error = "Account not found with ID: " + transfer.senderAccountId();
+            } else if (!accountsById.get(transfer.senderAccountId()).getOwnerId().equals(user.id())) {
+                // owners never change, so checking the unlocked row is as good as the locked one
+                error = "Source account does not belong to the current user.";
+            } else if (receiverId == null || !accountsById.containsKey(receiverId)) {
+                error = "Receiver account not found.";
+            } else if (transfer.senderAccountId().equals(receiverId)) {
+                error = "Sender and receiver accounts must be different.";
+            }
+
+            if (error != null) {
+                rejected[i] = new TransferBalanceItemResponse(i, false, error, null, null);
+                continue;
+            }
+
+            receiverIds[i] = receiverId;
+            lockedIds.add(transfer.senderAccountId());
+            if (!shardedBalanceManager.isSharded(accountsById.get(receiverId))) {
+                lockedIds.add(receiverId);
+            }
+        }
+
+        TransferBalanceItemResponse[] results = lockedIds.isEmpty() ? rejected : accountLockManager.withLockedAccounts(lockedIds, locked -> {
+            // Start from the rejected items on every attempt, optimistic mode may run this block more than once
+            TransferBalanceItemResponse[] attempt = rejected.clone();
+            for (int i = 0; i < transfers.size(); i++) {
+                if (attempt[i] != null) {
+                    continue;
+                }
+
+                TransferBalanceRequest transfer = transfers.get(i);
+                Account sender = locked.get(transfer.senderAccountId());
+                Account receiver = locked.getOrDefault(receiverIds[i], accountsById.get(receiverIds[i]));
+
+                boolean debited = false;
+                try {
+                    if (sender.isBlocked()) {
+                        throw new CustomException("Sender account is blocked.");
+                    }
+
+                    if (receiver.isBlocked()) {
+                        throw new CustomException("Receiver account is blocked.");
+                    }
+
+                    shardedBalanceManager.debit(sender, transfer.amount());
+                    debited = true;
+                    shardedBalanceManager.credit(receiver, transfer.amount());
+
+                    attempt[i] = new TransferBalanceItemResponse(
+                            i,
+                            true,
+                            null,
+                            accountResponseBuilder.buildAccountResponse(sender),
+                            accountResponseBuilder.buildAccountResponse(receiver)
+                    );
+                } catch (CustomException e) {
+                    if (debited) {
+                        sender.setBalance(sender.getBalance().add(transfer.amount()));
+                    }
+                    attempt[i] = new TransferBalanceItemResponse(i, false, e.getMessage(), null, null);
+                }
+            }
+
+            accountRepository.saveAll(locked.values());
+            return attempt;
+        });
+
+        // every item that passed validation may have moved money, including sharded receivers that were not locked
+        Set<UUID> touchedIds = new HashSet<>();
+        for (int i = 0; i < transfers.size(); i++) {
+            if (receiverIds[i] != null) {
+                touchedIds.add(transfers.get(i).senderAccountId());
+                touchedIds.add(receiverIds[i]);
+            }
+        }
+        accountCache.evictBalances(touchedIds);
+
+        return new BaseApiResponse<>(
+                HttpStatus.OK.value(),
+                "Batch of " + transfers.size() + " transfers processed.",
+                Arrays.asList(results)
+        );
+    }
+
+    @Override
+    public BaseApiResponse<AccountResponse> updateBalanceShards(UpdateBalanceShardsRequest request) {
+        if (request.shards() > maxBalanceShards) {
+            throw new CustomException("Shard count cannot exceed " + maxBalanceShards);
+        }
+
+        Account account = accountLockManager.withLockedAccounts(List.of(request.accountId()), accounts -> {
+            Account locked = accounts.get(request.accountId());
+            shardedBalanceManager.reshard(locked, request.shards());
+            return accountRepository.save(locked);
+        });
+        accountCache.evictBalances(List.of(request.accountId()));
 
         AccountResponse response = accountResponseBuilder.buildAccountResponse(account);
         return new BaseApiResponse<>(
                 HttpStatus.OK.value(),
-                "Account balance updated successfully.",
+                "Balance shards of the account with the ID: " + request.accountId() + " set to " + account.getBalanceShards(),
                 response
         );
     }
 
+    private Account resolveReceiverAccount(TransferBalanceRequest request) {
+        if (request.receiverAccountId() != null) {
+            return accountRepository.findById(request.receiverAccountId())
+                    .orElseThrow(() -> new NotFoundException("Account not found with ID: " + request.receiverAccountId()));
+        }
+
+        if (request.receiverAccountIban() == null || request.receiverAccountIban().isBlank()) {
+            throw new CustomException("Either IBAN or ID of the receiver account must be provided");
+        }
+
+        return accountRepository.findByIBAN(request.receiverAccountIban())
+                .orElseThrow(() -> new NotFoundException("Account not found with IBAN: " + request.receiverAccountIban()));
+    }
+
     @Override
     public BaseApiResponse<List<AccountResponse>> getCurrentUsersAccounts() {
-        var user = authServiceClient.getCurrentUser();
-        if (user == null) {
-            throw new UnauthorizedException("User not authenticated");
-        }
-        List<Account> accounts = accountRepository.findAllByOwnerId(user.getData().id());
+        var user = currentUserResolver.getCurrentUser();
+        List<Account> accounts = accountRepository.findAllByOwnerId(user.id());
         List<AccountResponse> response = accountResponseBuilder.buildAccountResponses(accounts);
         return new BaseApiResponse<>(
                 HttpStatus.OK.value(),
@@ -122,11 +366,30 @@ public class AccountServiceImpl implements AccountService {
         );
     }
 
+    @Override
+    public BaseApiResponse<List<AccountResponse>> lookupCurrentUsersAccounts(AccountLookupRequest request) {
+        var user = currentUserResolver.getCurrentUser();
+
+        // accounts of other users are left out, the same as a 404 from the single lookup
+        List<Account> accounts = findAccounts(request).stream()
+                .filter(account -> account.getOwnerId().equals(user.id()))
+                .toList();
+
+        return new BaseApiResponse<>(
+                HttpStatus.OK.value(),
+                accounts.size() + " accounts of the current user retrieved successfully.",
+                accountResponseBuilder.buildAccountResponses(accounts)
+        );
+    }
+
     @Override
     public BaseApiResponse<String> getIbanByAccountId(UUID accountId) {
-        String response = accountRepository.findById(accountId)
-                .map(Account::getIBAN)
-                .orElseThrow(() -> new CustomException("IBAN of the account (" + accountId + ") not found"));
+        String response;
+        try {
+            response = accountCache.getById(accountId).IBAN();
+        } catch (NotFoundException e) {
+            throw new CustomException("IBAN of the account (" + accountId + ") not found");
+        }
 
         return new BaseApiResponse<>(
                 HttpStatus.OK.value(),
@@ -137,9 +400,7 @@ public class AccountServiceImpl implements AccountService {
 
     @Override
     public BaseApiResponse<AccountResponse> getAccountByIban(String iban) {
-        Account account = accountRepository.findByIBAN(iban)
-                .orElseThrow(() -> new NotFoundException("Account not found with IBAN: " + iban));
-        AccountResponse response = accountResponseBuilder.buildAccountResponse(account);
+        AccountResponse response = accountCache.getByIban(iban);
         return new BaseApiResponse<>(
                 HttpStatus.OK.value(),
                 "Account with the IBAN: " + iban + " retrieved successfully.",
@@ -149,17 +410,14 @@ public class AccountServiceImpl implements AccountService {
 
     @Override
     public BaseApiResponse<AccountResponse> getCurrentUsersAccountById(UUID accountId) {
-        var user = authServiceClient.getCurrentUser();
+        var user = currentUserResolver.getCurrentUser();
 
-        Account account = accountRepository.findById(accountId)
-                .orElseThrow(() -> new NotFoundException("Account not found with ID: " + accountId));
+        AccountResponse response = accountCache.getById(accountId);
 
-        if (!account.getOwnerId().equals(user.getData().id())) {
+        if (!response.ownerId().equals(user.id())) {
             throw new UnauthorizedException("You are not authorized to view this account.");
         }
 
-        AccountResponse response = accountResponseBuilder.buildAccountResponse(account);
-
         return new BaseApiResponse<>(
                 HttpStatus.OK.value(),
                 "Account with the ID: " + accountId + " retrieved successfully.",
@@ -169,16 +427,18 @@ public class AccountServiceImpl implements AccountService {
 
     @Override
     public BaseApiResponse<String> deleteOwnAccount(UUID accountId) {
-        var user = authServiceClient.getCurrentUser();
+        var user = currentUserResolver.getCurrentUser();
 
         Account account = accountRepository.findById(accountId)
                 .orElseThrow(() -> new NotFoundException("Account not found with ID: " + accountId));
 
-        if (!account.getOwnerId().equals(user.getData().id())) {
+        if (!account.getOwnerId().equals(user.id())) {
             throw new UnauthorizedException("You are not authorized to delete this account.");
         }
 
+        shardedBalanceManager.deleteBuckets(account);
         accountRepository.delete(account);
+        accountCache.evict(account);
 
         return new BaseApiResponse<>(
                 HttpStatus.OK.value(),
@@ -220,10 +480,7 @@ public class AccountServiceImpl implements AccountService {
 
     @Override
     public BaseApiResponse<AccountResponse> getAccountById(UUID accountId) {
-        Account account = accountRepository.findById(accountId)
-                .orElseThrow(() -> new NotFoundException("Account not found with ID: " + accountId));
-
-        AccountResponse accountResponse = accountResponseBuilder.buildAccountResponse(account);
+        AccountResponse accountResponse = accountCache.getById(accountId);
 
         return new BaseApiResponse<>(
                 HttpStatus.OK.value(),
@@ -232,6 +489,17 @@ public class AccountServiceImpl implements AccountService {
         );
     }
 
+    @Override
+    public BaseApiResponse<List<AccountResponse>> lookupAccounts(AccountLookupRequest request) {
+        List<Account> accounts = findAccounts(request);
+
+        return new BaseApiResponse<>(
+                HttpStatus.OK.value(),
+                accounts.size() + " accounts retrieved successfully.",
+                accountResponseBuilder.buildAccountResponses(accounts)
+        );
+    }
+
     @Override
     public BaseApiResponse<AccountResponse> updateAccountStatus(UpdateAccountStatusRequest request) {
         Account account = accountRepository.findById(request.accountId())
@@ -239,6 +507,7 @@ public class AccountServiceImpl implements AccountService {
 
         account.setBlocked(request.isBlocked());
         accountRepository.save(account);
+        accountCache.evict(account);
 
         AccountResponse accountResponse = accountResponseBuilder.buildAccountResponse(account);
 
@@ -254,7 +523,9 @@ public class AccountServiceImpl implements AccountService {
         Account account = accountRepository.findById(accountId)
                 .orElseThrow(() -> new NotFoundException("Account not found with ID: " + accountId));
 
+        shardedBalanceManager.deleteBuckets(account);
         accountRepository.delete(account);
+        accountCache.evict(account);
 
         return new BaseApiResponse<>(
                 HttpStatus.OK.value(),
@@ -262,4 +533,24 @@ public class AccountServiceImpl implements AccountService {
                 null
         );
     }
+
+    private List<Account> findAccounts(AccountLookupRequest request) {
+        Set<UUID> ids = new HashSet<>(request.idsOrEmpty());
+        Set<String> ibans = new HashSet<>(request.ibansOrEmpty());
+        ids.remove(null);
+        ibans.remove(null);
+        if (ids.size() + ibans.size() > maxLookupSize) {
+            throw new CustomException("A lookup cannot contain more than " + maxLookupSize + " accounts.");
+        }
+
+        // One IN query for the whole lookup, accounts matched by both id and IBAN come back once
+        if (ibans.isEmpty()) {
+            return ids.isEmpty() ? List.of() : accountRepository.findAllById(ids);
+        }
+        if (ids.isEmpty()) {
+            return accountRepository.findAllByIBANIn(ibans);
+        }
+        return accountRepository.findAllByIdInOrIBANIn(ids, ibans);
+    }
+
 }
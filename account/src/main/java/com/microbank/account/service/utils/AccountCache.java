@@ -0,0 +1,132 @@
+package com.microbank.account.service.utils;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.microbank.account.dto.response.AccountResponse;
+import com.microbank.account.exceptions.NotFoundException;
+import com.microbank.account.model.Account;
+import com.microbank.account.repository.AccountRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.UUID;
+
+/**
+ * Read-through cache for single account lookups, keyed by id with a secondary IBAN to id index.
+ * Identity fields (IBAN, owner, blocked flag) are kept for {@code account.cache.ttl}; balances change with every
+ * transfer and are kept separately for the much shorter {@code account.cache.balance-ttl}.
+ * Writes in this instance evict the affected entries once they committed, other instances catch up within the TTLs.
+ * Balance mutations never read from here, they always work on locked database rows.
+ */
+@Component
+public class AccountCache {
+
+    private final AccountRepository accountRepository;
+    private final ShardedBalanceManager shardedBalanceManager;
+
+    private final Cache<UUID, AccountSnapshot> snapshots;
+    private final Cache<String, UUID> idsByIban;
+    private final Cache<UUID, BigDecimal> balances;
+
+    public AccountCache(
+            AccountRepository accountRepository,
+            ShardedBalanceManager shardedBalanceManager,
+            MeterRegistry meterRegistry,
+            @Value("${account.cache.max-size:50000}") long maxSize,
+            @Value("${account.cache.ttl:10m}") Duration ttl,
+            @Value("${account.cache.balance-ttl:2s}") Duration balanceTtl
+    ) {
+        this.accountRepository = accountRepository;
+        this.shardedBalanceManager = shardedBalanceManager;
+
+        this.snapshots = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        // IBANs never change, so the index only needs the size bound
+        this.idsByIban = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+        this.balances = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(balanceTtl)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, snapshots, "accounts");
+        CaffeineCacheMetrics.monitor(meterRegistry, idsByIban, "account-ibans");
+        CaffeineCacheMetrics.monitor(meterRegistry, balances, "account-balances");
+    }
+
+    public AccountResponse getById(UUID accountId) {
+        AccountSnapshot snapshot = snapshots.getIfPresent(accountId);
+        BigDecimal balance = balances.getIfPresent(accountId);
+        if (snapshot != null && balance != null) {
+            return snapshot.toResponse(balance);
+        }
+
+        // one row read refreshes both the identity fields and the balance
+        Account account = accountRepository.findById(accountId)
+                .orElseThrow(() -> new NotFoundException("Account not found with ID: " + accountId));
+        return store(account);
+    }
+
+    public AccountResponse getByIban(String iban) {
+        UUID accountId = idsByIban.getIfPresent(iban);
+        if (accountId != null && snapshots.getIfPresent(accountId) != null) {
+            return getById(accountId);
+        }
+
+        Account account = accountRepository.findByIBAN(iban)
+                .orElseThrow(() -> new NotFoundException("Account not found with IBAN: " + iban));
+        return store(account);
+    }
+
+    public void evictBalances(Collection<UUID> accountIds) {
+        balances.invalidateAll(accountIds);
+    }
+
+    public void evict(Account account) {
+        snapshots.invalidate(account.getId());
+        balances.invalidate(account.getId());
+        idsByIban.invalidate(account.getIBAN());
+    }
+
+    private AccountResponse store(Account account) {
+        AccountSnapshot snapshot = new AccountSnapshot(
+                account.getId(),
+                account.getIBAN(),
+                account.isBlocked(),
+                account.getOwnerName(),
+                account.getOwnerId(),
+                account.getOwnerEmail()
+        );
+        BigDecimal balance = shardedBalanceManager.totalBalance(account);
+
+        snapshots.put(account.getId(), snapshot);
+        idsByIban.put(account.getIBAN(), account.getId());
+        balances.put(account.getId(), balance);
+        return snapshot.toResponse(balance);
+    }
+
+    private record AccountSnapshot(
+            UUID id,
+            String iban,
+            boolean isBlocked,
+            String ownerName,
+            UUID ownerId,
+            String ownerEmail
+    ) {
+        private AccountResponse toResponse(BigDecimal balance) {
+            return new AccountResponse(id, iban, balance, isBlocked, ownerName, ownerId, ownerEmail);
+        }
+    }
+
+}
@@ -0,0 +1,150 @@
+package com.microbank.account.service.utils;
+
+import com.microbank.account.exceptions.CustomException;
+import com.microbank.account.exceptions.NotFoundException;
+import com.microbank.account.model.Account;
+import com.microbank.account.model.enums.BalanceLockingMode;
+import com.microbank.account.repository.AccountRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+
+/**
+ * Runs balance mutations against a set of accounts using the configured {@link BalanceLockingMode}.
+ * PESSIMISTIC takes SELECT ... FOR UPDATE row locks in id order, OPTIMISTIC relies on the
+ * {@code @Version} column and retries the whole unit of work a bounded number of times.
+ */
+@Component
+public class AccountLockManager {
+
+    private static final Logger log = LoggerFactory.getLogger(AccountLockManager.class);
+
+    private final AccountRepository accountRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final BalanceLockingMode lockingMode;
+    private final int maxAttempts;
+    private final Duration retryBackoff;
+
+    private final Timer lockAcquisitionTimer;
+    private final Counter conflictCounter;
+    private final Counter retryCounter;
+    private final Counter exhaustedCounter;
+
+    public AccountLockManager(
+            AccountRepository accountRepository,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${account.balance.locking-mode:PESSIMISTIC}") BalanceLockingMode lockingMode,
+            @Value("${account.balance.optimistic.max-attempts:5}") int maxAttempts,
+            @Value("${account.balance.optimistic.retry-backoff:20ms}") Duration retryBackoff
+    ) {
+        this.accountRepository = accountRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.lockingMode = lockingMode;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.retryBackoff = retryBackoff;
+
+        String mode = lockingMode.name().toLowerCase();
+        this.lockAcquisitionTimer = Timer.builder("account.balance.lock.acquisition")
+                .description("Time spent acquiring row locks on accounts")
+                .tag("mode", mode)
+                .register(meterRegistry);
+        this.conflictCounter = Counter.builder("account.balance.lock.conflicts")
+                .description("Balance updates that collided with a concurrent update")
+                .tag("mode", mode)
+                .register(meterRegistry);
+        this.retryCounter = Counter.builder("account.balance.lock.retries")
+                .description("Balance updates retried after an optimistic lock conflict")
+                .tag("mode", mode)
+                .register(meterRegistry);
+        this.exhaustedCounter = Counter.builder("account.balance.lock.exhausted")
+                .description("Balance updates rejected after running out of retry attempts")
+                .tag("mode", mode)
+                .register(meterRegistry);
+    }
+
+    public <T> T withLockedAccounts(Collection<UUID> accountIds, Function<Map<UUID, Account>, T> work) {
+        // Sorting gives every caller the same lock order, which keeps pessimistic mode deadlock free
+        SortedSet<UUID> orderedIds = new TreeSet<>(accountIds);
+
+        if (lockingMode == BalanceLockingMode.PESSIMISTIC) {
+            return transactionTemplate.execute(status -> work.apply(lockPessimistically(orderedIds)));
+        }
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> {
+                    T result = work.apply(loadOptimistically(orderedIds));
+                    accountRepository.flush();
+                    return result;
+                });
+            } catch (OptimisticLockingFailureException e) {
+                conflictCounter.increment();
+
+                if (attempt >= maxAttempts) {
+                    exhaustedCounter.increment();
+                    log.warn("Giving up on balance update for accounts {} after {} attempts", orderedIds, attempt);
+                    throw new CustomException("Account is being updated concurrently, please retry.");
+                }
+
+                retryCounter.increment();
+                backOff(attempt);
+            }
+        }
+    }
+
+    public BalanceLockingMode getLockingMode() {
+        return lockingMode;
+    }
+
+    private Map<UUID, Account> lockPessimistically(SortedSet<UUID> orderedIds) {
+        Map<UUID, Account> accounts = new LinkedHashMap<>();
+        for (UUID id : orderedIds) {
+            long start = System.nanoTime();
+            Account account = accountRepository.findByIdForUpdate(id)
+                    .orElseThrow(() -> new NotFoundException("Account not found with ID: " + id));
+            lockAcquisitionTimer.record(Duration.ofNanos(System.nanoTime() - start));
+            accounts.put(id, account);
+        }
+        return accounts;
+    }
+
+    private Map<UUID, Account> loadOptimistically(SortedSet<UUID> orderedIds) {
+        Map<UUID, Account> accounts = new LinkedHashMap<>();
+        for (Account account : accountRepository.findAllById(orderedIds)) {
+            accounts.put(account.getId(), account);
+        }
+        for (UUID id : orderedIds) {
+            if (!accounts.containsKey(id)) {
+                throw new NotFoundException("Account not found with ID: " + id);
+            }
+        }
+        return accounts;
+    }
+
+    private void backOff(int attempt) {
+        long baseMillis = retryBackoff.toMillis() * attempt;
+        if (baseMillis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(baseMillis + ThreadLocalRandom.current().nextLong(baseMillis));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CustomException("Interrupted while retrying balance update.");
+        }
+    }
+
+}
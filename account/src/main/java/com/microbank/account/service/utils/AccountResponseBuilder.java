@@ -4,17 +4,40 @@ import com.microbank.account.dto.response.AccountResponse;
 import com.microbank.account.model.Account;
 import org.springframework.stereotype.Component;
 
+import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 
 @Component
 public class AccountResponseBuilder {
 
+    private final ShardedBalanceManager shardedBalanceManager;
+
+    public AccountResponseBuilder(ShardedBalanceManager shardedBalanceManager) {
+        this.shardedBalanceManager = shardedBalanceManager;
+    }
+
     public AccountResponse buildAccountResponse(Account a) {
+        return buildAccountResponse(a, shardedBalanceManager.totalBalance(a));
+    }
+
+    public List<AccountResponse> buildAccountResponses(List<Account> accounts) {
+        Map<UUID, BigDecimal> bucketTotals = shardedBalanceManager.bucketTotals(accounts);
+        List<AccountResponse> accountResponses = new ArrayList<>();
+        for (Account a : accounts) {
+            BigDecimal balance = a.getBalance().add(bucketTotals.getOrDefault(a.getId(), BigDecimal.ZERO));
+            accountResponses.add(buildAccountResponse(a, balance));
+        }
+        return accountResponses;
+    }
+
+    private AccountResponse buildAccountResponse(Account a, BigDecimal balance) {
         return new AccountResponse(
                 a.getId(),
                 a.getIBAN(),
-                a.getBalance(),
+                balance,
                 a.isBlocked(),
                 a.getOwnerName(),
                 a.getOwnerId(),
@@ -22,12 +45,4 @@ public class AccountResponseBuilder {
         );
     }
 
-    public List<AccountResponse> buildAccountResponses(List<Account> accounts) {
-        List<AccountResponse> accountResponses = new ArrayList<>();
-        for (Account a : accounts) {
-            accountResponses.add(buildAccountResponse(a));
-        }
-        return accountResponses;
-    }
-
 }
@@ -0,0 +1,79 @@
+package com.microbank.account.service.utils;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.microbank.account.dto.response.UserResponse;
+import com.microbank.account.exceptions.UnauthorizedException;
+import com.microbank.account.feign.AuthServiceClient;
+import com.microbank.account.response.BaseApiResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Resolves the calling user from the request's JWT instead of asking auth-service on every request.
+ * The Keycloak subject is mapped to the internal user once through auth-service and kept in a local cache.
+ * The internal id is never read from token claims: those come from user attributes that users can edit themselves.
+ * Email and name are always taken from the token when present, so they follow profile changes on the next login.
+ */
+@Component
+public class CurrentUserResolver {
+
+    private final AuthServiceClient authServiceClient;
+    private final Cache<String, UserResponse> usersBySubject;
+
+    public CurrentUserResolver(
+            AuthServiceClient authServiceClient,
+            MeterRegistry meterRegistry,
+            @Value("${account.current-user.cache-ttl:30m}") Duration cacheTtl,
+            @Value("${account.current-user.cache-size:10000}") long cacheSize
+    ) {
+        this.authServiceClient = authServiceClient;
+        this.usersBySubject = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(cacheTtl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, usersBySubject, "current-users");
+    }
+
+    public UserResponse getCurrentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (!(authentication instanceof JwtAuthenticationToken jwtToken)) {
+            throw new UnauthorizedException("User not authenticated.");
+        }
+
+        Jwt jwt = jwtToken.getToken();
+        String subject = jwt.getSubject();
+        String email = jwt.getClaimAsString("email");
+        String firstName = jwt.getClaimAsString("given_name");
+        String lastName = jwt.getClaimAsString("family_name");
+
+        // the loader runs on the request thread, so the Feign call still carries this request's token
+        UserResponse user = usersBySubject.get(subject, ignored -> fetchCurrentUser());
+        return new UserResponse(
+                user.id(),
+                user.keycloakId(),
+                user.username(),
+                email != null ? email : user.email(),
+                firstName != null ? firstName : user.firstName(),
+                lastName != null ? lastName : user.lastName()
+        );
+    }
+
+    private UserResponse fetchCurrentUser() {
+        BaseApiResponse<UserResponse> response = authServiceClient.getCurrentUser();
+        if (response == null || response.getData() == null) {
+            throw new UnauthorizedException("User not authenticated.");
+        }
+        return response.getData();
+    }
+
+}
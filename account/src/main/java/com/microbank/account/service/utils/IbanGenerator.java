@@ -0,0 +1,107 @@
+package com.microbank.account.service.utils;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Issues unique IBANs of the form {@code MB}, two ISO 13616 check digits and a 12 digit account number.
+ * Account numbers come from a database sequence in blocks of {@code account.iban.block-size}, so each instance
+ * hits the database once per block and no two instances can ever hand out the same number.
+ * The block size of an existing sequence is read back from the database and wins over the configured one.
+ */
+@Component
+public class IbanGenerator {
+
+    private static final String SEQUENCE_NAME = "account_iban_seq";
+    private static final String COUNTRY_CODE = "MB";
+    private static final int ACCOUNT_NUMBER_DIGITS = 12;
+    private static final long MAX_ACCOUNT_NUMBER = 999_999_999_999L;
+
+    // the country code moved behind the account number with its letters as two digit numbers (A = 10) and "00"
+    private static final long COUNTRY_SUFFIX = letterValue(COUNTRY_CODE.charAt(0)) * 10_000L
+            + letterValue(COUNTRY_CODE.charAt(1)) * 100L;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int configuredBlockSize;
+
+    private boolean sequenceReady;
+    private long blockSize;
+    private long nextAccountNumber;
+    private long blockEnd;
+
+    public IbanGenerator(JdbcTemplate jdbcTemplate, @Value("${account.iban.block-size:1000}") int configuredBlockSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.configuredBlockSize = configuredBlockSize;
+    }
+
+    public String nextIban() {
+        return format(nextAccountNumber());
+    }
+
+    private synchronized long nextAccountNumber() {
+        if (nextAccountNumber == blockEnd) {
+            allocateBlock();
+        }
+        return nextAccountNumber++;
+    }
+
+    private void allocateBlock() {
+        if (!sequenceReady) {
+            prepareSequence();
+        }
+
+        Long blockStart = jdbcTemplate.queryForObject("SELECT nextval('" + SEQUENCE_NAME + "')", Long.class);
+        if (blockStart == null || blockStart + blockSize - 1 > MAX_ACCOUNT_NUMBER) {
+            throw new IllegalStateException("IBAN account number range is exhausted.");
+        }
+        nextAccountNumber = blockStart;
+        blockEnd = blockStart + blockSize;
+    }
+
+    private void prepareSequence() {
+        try {
+            jdbcTemplate.execute("CREATE SEQUENCE IF NOT EXISTS " + SEQUENCE_NAME
+                    + " START WITH 1 INCREMENT BY " + configuredBlockSize);
+        } catch (DataAccessException e) {
+            // another instance created it at the same moment, reading the increment below fails if it is really missing
+        }
+
+        Long increment = jdbcTemplate.queryForObject(
+                "SELECT increment_by FROM pg_sequences WHERE sequencename = ?", Long.class, SEQUENCE_NAME);
+        if (increment == null) {
+            throw new IllegalStateException("IBAN sequence " + SEQUENCE_NAME + " could not be created.");
+        }
+        blockSize = increment;
+        sequenceReady = true;
+    }
+
+    static String format(long accountNumber) {
+        char[] iban = new char[4 + ACCOUNT_NUMBER_DIGITS];
+        iban[0] = COUNTRY_CODE.charAt(0);
+        iban[1] = COUNTRY_CODE.charAt(1);
+
+        int checkDigits = checkDigits(accountNumber);
+        iban[2] = (char) ('0' + checkDigits / 10);
+        iban[3] = (char) ('0' + checkDigits % 10);
+
+        long remaining = accountNumber;
+        for (int i = iban.length - 1; i >= 4; i--) {
+            iban[i] = (char) ('0' + remaining % 10);
+            remaining /= 10;
+        }
+        return new String(iban);
+    }
+
+    static int checkDigits(long accountNumber) {
+        // accountNumber * 10^6 + COUNTRY_SUFFIX stays below 10^18, but reducing first keeps every step small
+        int remainder = (int) (((accountNumber % 97) * (1_000_000 % 97) + COUNTRY_SUFFIX) % 97);
+        return 98 - remainder;
+    }
+
+    private static long letterValue(char letter) {
+        return letter - 'A' + 10;
+    }
+
+}
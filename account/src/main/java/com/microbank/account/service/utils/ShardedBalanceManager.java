@@ -0,0 +1,119 @@
+package com.microbank.account.service.utils;
+
+import com.microbank.account.exceptions.CustomException;
+import com.microbank.account.model.Account;
+import com.microbank.account.model.AccountBalanceBucket;
+import com.microbank.account.repository.AccountBalanceBucketRepository;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+/**
+ * Balance arithmetic for accounts that may keep part of their balance in sub-balance buckets.
+ * Credits to a sharded account only touch one bucket row, so they never wait on the account row lock.
+ * Debits fold every bucket back into the account row first, which requires the caller to hold that row.
+ */
+@Component
+public class ShardedBalanceManager {
+
+    private final AccountBalanceBucketRepository bucketRepository;
+
+    public ShardedBalanceManager(AccountBalanceBucketRepository bucketRepository) {
+        this.bucketRepository = bucketRepository;
+    }
+
+    public boolean isSharded(Account account) {
+        return account.getBalanceShards() > 1;
+    }
+
+    public void credit(Account account, BigDecimal amount) {
+        if (!isSharded(account)) {
+            account.setBalance(account.getBalance().add(amount));
+            return;
+        }
+
+        int updated = bucketRepository.addToBucket(account.getId(), selectBucket(account.getBalanceShards()), amount);
+        if (updated == 0) {
+            throw new CustomException("Balance layout of the account " + account.getId() + " changed, please retry.");
+        }
+    }
+
+    public void debit(Account lockedAccount, BigDecimal amount) {
+        if (isSharded(lockedAccount)) {
+            collapseBuckets(lockedAccount);
+        }
+
+        if (lockedAccount.getBalance().compareTo(amount) < 0) {
+            throw new CustomException("Insufficient balance.");
+        }
+
+        lockedAccount.setBalance(lockedAccount.getBalance().subtract(amount));
+    }
+
+    public void reshard(Account lockedAccount, int shards) {
+        if (isSharded(lockedAccount)) {
+            bucketRepository.deleteAll(collapseBuckets(lockedAccount));
+            // Hibernate flushes inserts before deletes, so clear the old rows before reusing bucket indexes
+            bucketRepository.flush();
+        }
+
+        if (shards > 1) {
+            List<AccountBalanceBucket> buckets = new ArrayList<>(shards);
+            for (int i = 0; i < shards; i++) {
+                buckets.add(new AccountBalanceBucket(null, lockedAccount.getId(), i, BigDecimal.ZERO));
+            }
+            bucketRepository.saveAll(buckets);
+        }
+
+        lockedAccount.setBalanceShards(shards > 1 ? shards : 0);
+    }
+
+    public BigDecimal totalBalance(Account account) {
+        if (!isSharded(account)) {
+            return account.getBalance();
+        }
+        return account.getBalance().add(bucketRepository.sumBalanceByAccountId(account.getId()));
+    }
+
+    public Map<UUID, BigDecimal> bucketTotals(Collection<Account> accounts) {
+        List<UUID> shardedIds = accounts.stream()
+                .filter(this::isSharded)
+                .map(Account::getId)
+                .toList();
+
+        if (shardedIds.isEmpty()) {
+            return Map.of();
+        }
+
+        Map<UUID, BigDecimal> totals = new HashMap<>();
+        for (AccountBalanceBucketRepository.BucketTotal total : bucketRepository.sumBalanceByAccountIdIn(shardedIds)) {
+            totals.put(total.getAccountId(), total.getBalance());
+        }
+        return totals;
+    }
+
+    public void deleteBuckets(Account account) {
+        if (isSharded(account)) {
+            bucketRepository.deleteAllByAccountId(account.getId());
+        }
+    }
+
+    private List<AccountBalanceBucket> collapseBuckets(Account lockedAccount) {
+        List<AccountBalanceBucket> buckets = bucketRepository.findAllByAccountIdForUpdate(lockedAccount.getId());
+        BigDecimal collected = BigDecimal.ZERO;
+        for (AccountBalanceBucket bucket : buckets) {
+            collected = collected.add(bucket.getBalance());
+            bucket.setBalance(BigDecimal.ZERO);
+        }
+        lockedAccount.setBalance(lockedAccount.getBalance().add(collected));
+        return buckets;
+    }
+
+    private static int selectBucket(int shards) {
+        // Spread the thread id so request threads map evenly onto buckets
+        long h = Thread.currentThread().getId() * 0x9E3779B97F4A7C15L;
+        return (int) Math.floorMod(h ^ (h >>> 32), (long) shards);
+    }
+
+}
@@ -0,0 +1,81 @@
+package com.microbank.account.service.utils;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class IbanGeneratorTest {
+
+    @Test
+    void formatProducesValidIso13616CheckDigits() {
+        for (long accountNumber : new long[]{1, 7, 42, 96, 97, 98, 123_456_789_012L, 999_999_999_999L}) {
+            String iban = IbanGenerator.format(accountNumber);
+
+            assertThat(iban).hasSize(16).startsWith("MB");
+            assertThat(mod97(iban)).as(iban).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void formatPadsTheAccountNumberToTwelveDigits() {
+        assertThat(IbanGenerator.format(42)).isEqualTo("MB91000000000042");
+        assertThat(IbanGenerator.format(999_999_999_999L)).isEqualTo("MB96999999999999");
+    }
+
+    @Test
+    void checkDigitsStayWithinTwoDigits() {
+        for (long accountNumber = 0; accountNumber < 10_000; accountNumber++) {
+            assertThat(IbanGenerator.checkDigits(accountNumber)).isBetween(2, 98);
+        }
+    }
+
+    @Test
+    void handsOutConsecutiveNumbersAndAllocatesANewBlockWhenOneRunsOut() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.queryForObject(startsWith("SELECT increment_by"), eq(Long.class), any())).thenReturn(3L);
+        when(jdbcTemplate.queryForObject(startsWith("SELECT nextval"), eq(Long.class))).thenReturn(1L, 4L);
+
+        IbanGenerator generator = new IbanGenerator(jdbcTemplate, 1000);
+
+        assertThat(generator.nextIban()).isEqualTo(IbanGenerator.format(1));
+        assertThat(generator.nextIban()).isEqualTo(IbanGenerator.format(2));
+        assertThat(generator.nextIban()).isEqualTo(IbanGenerator.format(3));
+        assertThat(generator.nextIban()).isEqualTo(IbanGenerator.format(4));
+
+        // the increment read back from the database wins over the configured block size
+        verify(jdbcTemplate, times(2)).queryForObject(startsWith("SELECT nextval"), eq(Long.class));
+        verify(jdbcTemplate, times(1)).execute(startsWith("CREATE SEQUENCE IF NOT EXISTS"));
+    }
+
+    @Test
+    void failsOnceTheAccountNumberRangeIsExhausted() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.queryForObject(startsWith("SELECT increment_by"), eq(Long.class), any())).thenReturn(1000L);
+        when(jdbcTemplate.queryForObject(startsWith("SELECT nextval"), eq(Long.class))).thenReturn(999_999_999_500L);
+
+        IbanGenerator generator = new IbanGenerator(jdbcTemplate, 1000);
+
+        assertThatThrownBy(generator::nextIban).isInstanceOf(IllegalStateException.class);
+    }
+
+    private static int mod97(String iban) {
+        String rearranged = iban.substring(4) + iban.substring(0, 4);
+        StringBuilder digits = new StringBuilder();
+        for (char c : rearranged.toCharArray()) {
+            digits.append(Character.isLetter(c) ? String.valueOf(c - 'A' + 10) : String.valueOf(c));
+        }
+        return new BigInteger(digits.toString()).mod(BigInteger.valueOf(97)).intValue();
+    }
+
+}
@@ -13,6 +13,7 @@ import com.microbank.auth.model.enums.UserRole;
 import com.microbank.auth.repository.UserRepository;
 import com.microbank.auth.response.BaseApiResponse;
 import com.microbank.auth.service.AuthService;
+import com.microbank.auth.service.utils.UserCache;
 import com.microbank.auth.service.utils.UserServiceUtils;
 import jakarta.ws.rs.core.Response;
 import org.keycloak.admin.client.Keycloak;
@@ -46,6 +47,7 @@ public class AuthServiceImpl implements AuthService {
     private final RabbitTemplate rabbitTemplate;
     private final RestTemplate restTemplate;
     private final UserServiceUtils userServiceUtils;
+    private final UserCache userCache;
 
     public AuthServiceImpl(
             UserRepository userRepository,
@@ -55,7 +57,8 @@ public class AuthServiceImpl implements AuthService {
             PasswordEncoder passwordEncoder,
             RabbitTemplate rabbitTemplate,
             RestTemplate restTemplate,
-            UserServiceUtils userServiceUtils
+            UserServiceUtils userServiceUtils,
+            UserCache userCache
     ) {
         this.userRepository = userRepository;
         this.keycloak = keycloak;
@@ -65,6 +68,7 @@ public class AuthServiceImpl implements AuthService {
         this.rabbitTemplate = rabbitTemplate;
         this.restTemplate = restTemplate;
         this.userServiceUtils = userServiceUtils;
+        this.userCache = userCache;
     }
 
     @Value("${keycloak.login.token-url}")
@@ -386,6 +390,7 @@ public class AuthServiceImpl implements AuthService {
 
             user.setPassword(passwordEncoder.encode(request.newPassword()));
             userRepository.save(user);
+            userCache.evict(user.getId(), user.getKeycloakId());
 
             new Thread(() -> redisTemplate.delete(redisKey)).start();
 
@@ -421,21 +426,22 @@ public class AuthServiceImpl implements AuthService {
 
     @Override
     public BaseApiResponse<UserResponse> getUserById(UUID userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        UserResponse user = userCache.getById(userId, () -> userServiceUtils.buildUserResponse(
+                userRepository.findById(userId).orElseThrow(() -> new RuntimeException("User not found"))
+        ));
 
         return new BaseApiResponse<>(
                 HttpStatus.OK.value(),
                 "User with the ID: " + userId + " retrieved successfully.",
-                userServiceUtils.buildUserResponse(user)
+                user
         );
     }
 
     private UserResponse getUserByKeycloakId(String keycloakId) {
-        User user = userRepository.findByKeycloakId(keycloakId)
-                .orElseThrow(() -> new RuntimeException("User not found with Keycloak ID: " + keycloakId));
-
-        return userServiceUtils.buildUserResponse(user);
+        return userCache.getByKeycloakId(keycloakId, () -> userServiceUtils.buildUserResponse(
+                userRepository.findByKeycloakId(keycloakId)
+                        .orElseThrow(() -> new RuntimeException("User not found with Keycloak ID: " + keycloakId))
+        ));
     }
 
     @Override
@@ -476,6 +482,7 @@ public class AuthServiceImpl implements AuthService {
         }
 
         userRepository.deleteById(userId);
+        userCache.evict(userId, user.getKeycloakId());
 
         return new BaseApiResponse<>(
                 HttpStatus.OK.value(),
@@ -521,6 +528,7 @@ public class AuthServiceImpl implements AuthService {
 
         user.setRole(UserRole.valueOf(newRole));
         userRepository.save(user);
+        userCache.evict(user.getId(), user.getKeycloakId());
 
         return new BaseApiResponse<>(
                 HttpStatus.OK.value(),
@@ -542,6 +550,7 @@ public class AuthServiceImpl implements AuthService {
 
         user.setBanned(request.isBanned());
         userRepository.save(user);
+        userCache.evict(user.getId(), user.getKeycloakId());
 
         return new BaseApiResponse<>(
                 HttpStatus.OK.value(),
@@ -0,0 +1,155 @@
+package com.microbank.auth.service.utils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.microbank.auth.dto.response.UserResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Two-tier cache for {@link UserResponse} lookups by id and by Keycloak id.
+ * Each instance keeps a short-lived near cache in the JVM in front of a shared Redis tier.
+ * Evictions delete the Redis entries and are broadcast on a pub/sub channel so every instance drops its near copy.
+ * Redis being unavailable only costs the shared tier, lookups then go straight to the database.
+ */
+@Component
+public class UserCache {
+
+    private static final Logger log = LoggerFactory.getLogger(UserCache.class);
+
+    private static final String KEY_PREFIX = "user-cache:";
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final Cache<String, UserResponse> nearCache;
+    private final Duration redisTtl;
+    private final String invalidationChannel;
+
+    private final Counter redisHitCounter;
+    private final Counter redisMissCounter;
+
+    public UserCache(
+            RedisTemplate<String, String> redisTemplate,
+            ObjectMapper objectMapper,
+            RedisMessageListenerContainer redisMessageListenerContainer,
+            MeterRegistry meterRegistry,
+            @Value("${auth.user-cache.near-ttl:1m}") Duration nearTtl,
+            @Value("${auth.user-cache.near-size:10000}") long nearSize,
+            @Value("${auth.user-cache.redis-ttl:30m}") Duration redisTtl,
+            @Value("${auth.user-cache.invalidation-channel:user-cache-invalidation}") String invalidationChannel
+    ) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.redisTtl = redisTtl;
+        this.invalidationChannel = invalidationChannel;
+        this.nearCache = Caffeine.newBuilder()
+                .maximumSize(nearSize)
+                .expireAfterWrite(nearTtl)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, nearCache, "users-near");
+        Gauge.builder("auth.user-cache.near.hit-ratio", nearCache, cache -> cache.stats().hitRate())
+                .description("Share of user lookups answered by the in-process cache")
+                .register(meterRegistry);
+        this.redisHitCounter = Counter.builder("auth.user-cache.redis")
+                .description("User lookups that missed the near cache, by outcome in Redis")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.redisMissCounter = Counter.builder("auth.user-cache.redis")
+                .description("User lookups that missed the near cache, by outcome in Redis")
+                .tag("result", "miss")
+                .register(meterRegistry);
+
+        redisMessageListenerContainer.addMessageListener(
+                (message, pattern) -> evictLocally(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(invalidationChannel)
+        );
+    }
+
+    public UserResponse getById(UUID userId, Supplier<UserResponse> loader) {
+        return get(idKey(userId), loader);
+    }
+
+    public UserResponse getByKeycloakId(String keycloakId, Supplier<UserResponse> loader) {
+        return get(keycloakKey(keycloakId), loader);
+    }
+
+    public void evict(UUID userId, String keycloakId) {
+        List<String> keys = List.of(idKey(userId), keycloakKey(keycloakId));
+        keys.forEach(nearCache::invalidate);
+        try {
+            redisTemplate.delete(keys.stream().map(key -> KEY_PREFIX + key).toList());
+            for (String key : keys) {
+                redisTemplate.convertAndSend(invalidationChannel, key);
+            }
+        } catch (RuntimeException e) {
+            // other instances still drop the entry once their near TTL runs out
+            log.warn("Could not evict user {} from Redis: {}", userId, e.getMessage());
+        }
+    }
+
+    private UserResponse get(String key, Supplier<UserResponse> loader) {
+        return nearCache.get(key, ignored -> {
+            UserResponse cached = readShared(key);
+            if (cached != null) {
+                redisHitCounter.increment();
+                return cached;
+            }
+            redisMissCounter.increment();
+
+            UserResponse loaded = loader.get();
+            writeShared(loaded);
+            return loaded;
+        });
+    }
+
+    private UserResponse readShared(String key) {
+        try {
+            String json = redisTemplate.opsForValue().get(KEY_PREFIX + key);
+            return json == null ? null : objectMapper.readValue(json, UserResponse.class);
+        } catch (Exception e) {
+            log.debug("Redis lookup for {} failed: {}", key, e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeShared(UserResponse user) {
+        try {
+            String json = objectMapper.writeValueAsString(user);
+            redisTemplate.opsForValue().set(KEY_PREFIX + idKey(user.id()), json, redisTtl);
+            redisTemplate.opsForValue().set(KEY_PREFIX + keycloakKey(user.keycloakId()), json, redisTtl);
+        } catch (Exception e) {
+            log.debug("Could not store user {} in Redis: {}", user.id(), e.getMessage());
+        }
+    }
+
+    private void evictLocally(String key) {
+        nearCache.invalidate(key);
+    }
+
+    private static String idKey(UUID userId) {
+        return "id:" + userId;
+    }
+
+    private static String keycloakKey(String keycloakId) {
+        return "kc:" + keycloakId;
+    }
+
+}
@@ -0,0 +1,49 @@
+package com.microbank.document.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+
+@Configuration
+public class DocumentRenderingConfig {
+
+    // 0 means one rendering thread per available core
+    @Value("${document.rendering.parallelism:0}")
+    private int parallelism;
+
+    // every statement worker holds a database connection while it renders, keep this below the pool size
+    @Value("${document.statements.parallelism:4}")
+    private int statementParallelism;
+
+    @Bean
+    public ThreadPoolTaskExecutor documentRenderExecutor() {
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setThreadNamePrefix("document-render-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.initialize();
+        return executor;
+    }
+
+    @Bean(destroyMethod = "shutdownNow")
+    public ForkJoinPool statementExecutor() {
+        return new ForkJoinPool(
+                Math.max(1, statementParallelism),
+                pool -> {
+                    ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+                    thread.setName("document-statement-" + thread.getPoolIndex());
+                    return thread;
+                },
+                null,
+                false
+        );
+    }
+
+}
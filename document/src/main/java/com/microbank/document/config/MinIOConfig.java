@@ -5,6 +5,10 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
 @Configuration
 public class MinIOConfig {
 
@@ -17,6 +21,9 @@ public class MinIOConfig {
     @Value("${minio.secret-key}")
     private String secretKey;
 
+    @Value("${minio.upload.concurrency:8}")
+    private int uploadConcurrency;
+
     @Bean
     public MinioClient minioClient() {
         return MinioClient.builder()
@@ -25,4 +32,14 @@ public class MinIOConfig {
                 .build();
     }
 
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService minioUploadExecutor() {
+        AtomicInteger counter = new AtomicInteger();
+        return Executors.newFixedThreadPool(uploadConcurrency, runnable -> {
+            Thread thread = new Thread(runnable, "minio-upload-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
 }
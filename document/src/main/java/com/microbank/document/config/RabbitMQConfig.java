@@ -1,15 +1,57 @@
 package com.microbank.document.config;
 
+import org.springframework.amqp.core.Binding;
+import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.FanoutExchange;
 import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.amqp.SimpleRabbitListenerContainerFactoryConfigurer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
+
 @Configuration
 public class RabbitMQConfig {
 
+    @Bean
+    public FanoutExchange transactionExchange() {
+        return new FanoutExchange("transaction-exchange", true, false);
+    }
+
     @Bean
     public Queue transactionQueue() {
-        return new Queue("transaction-queue", true);
+        return new Queue("document-transaction-queue", true);
+    }
+
+    @Bean
+    public Binding transactionBinding() {
+        return BindingBuilder.bind(transactionQueue()).to(transactionExchange());
+    }
+
+    @Bean
+    public SimpleRabbitListenerContainerFactory transactionListenerContainerFactory(
+            SimpleRabbitListenerContainerFactoryConfigurer configurer,
+            ConnectionFactory connectionFactory,
+            @Value("${document.transaction-listener.concurrency:1}") int concurrency,
+            @Value("${document.transaction-listener.max-concurrency:1}") int maxConcurrency,
+            @Value("${document.transaction-listener.prefetch:10}") int prefetch,
+            @Value("${document.transaction-listener.batch-size:20}") int batchSize,
+            @Value("${document.transaction-listener.flush-timeout:1s}") Duration flushTimeout
+    ) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        configurer.configure(factory, connectionFactory);
+        factory.setConcurrentConsumers(concurrency);
+        factory.setMaxConcurrentConsumers(Math.max(concurrency, maxConcurrency));
+        // Consumers hand whole batches to the listener; a partial batch is flushed after flushTimeout
+        factory.setBatchListener(true);
+        factory.setConsumerBatchEnabled(true);
+        factory.setBatchSize(batchSize);
+        factory.setBatchReceiveTimeout(flushTimeout.toMillis());
+        factory.setPrefetchCount(Math.max(prefetch, batchSize));
+        return factory;
     }
 
 }
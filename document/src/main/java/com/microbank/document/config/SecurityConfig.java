@@ -27,6 +27,8 @@ public class SecurityConfig {
                         .requestMatchers(HttpMethod.GET,  "/api/v1/documents/{documentId}").hasAnyRole("USER", "ADMIN")
                         .requestMatchers(HttpMethod.GET,  "/api/v1/documents/transactions/{transactionId}").hasAnyRole("USER", "ADMIN")
                         .requestMatchers(HttpMethod.GET,  "/api/v1/documents/admin/transactions").hasRole("ADMIN")
+                        .requestMatchers(HttpMethod.POST, "/api/v1/documents/admin/statements").hasRole("ADMIN")
+                        .requestMatchers(HttpMethod.GET,  "/api/v1/documents/admin/statements").hasRole("ADMIN")
                         .anyRequest().authenticated()
                 )
                 .oauth2ResourceServer(oauth2 -> oauth2
@@ -1,14 +1,16 @@
 package com.microbank.document.controller;
 
+import com.microbank.document.dto.response.StatementRunResponse;
 import com.microbank.document.dto.response.TransactionDocumentResponse;
 import com.microbank.document.response.BaseApiResponse;
 import com.microbank.document.service.DocumentService;
+import com.microbank.document.service.StatementService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.web.bind.annotation.GetMapping;
-import org.springframework.web.bind.annotation.PathVariable;
-import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.bind.annotation.*;
 
+import java.time.YearMonth;
 import java.util.List;
 import java.util.UUID;
 
@@ -17,9 +19,11 @@ import java.util.UUID;
 public class DocumentController {
 
     private final DocumentService documentService;
+    private final StatementService statementService;
 
-    public DocumentController(DocumentService documentService) {
+    public DocumentController(DocumentService documentService, StatementService statementService) {
         this.documentService = documentService;
+        this.statementService = statementService;
     }
 
     @GetMapping("/{documentId}")
@@ -37,4 +41,16 @@ public class DocumentController {
         return ResponseEntity.ok(documentService.getAllTransactionDocuments());
     }
 
+    @PostMapping("/admin/statements")
+    public ResponseEntity<BaseApiResponse<StatementRunResponse>> startMonthlyStatements(
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM") YearMonth period
+    ) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(statementService.startMonthlyStatements(period));
+    }
+
+    @GetMapping("/admin/statements")
+    public ResponseEntity<BaseApiResponse<StatementRunResponse>> getStatementRunStatus() {
+        return ResponseEntity.ok(statementService.getStatementRunStatus());
+    }
+
 }
@@ -0,0 +1,12 @@
+package com.microbank.document.dto.response;
+
+import java.time.YearMonth;
+
+public record StatementRunResponse(
+        YearMonth period,
+        boolean running,
+        long dispatched,
+        long completed,
+        long failed
+) {
+}
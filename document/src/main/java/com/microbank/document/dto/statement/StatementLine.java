@@ -0,0 +1,14 @@
+package com.microbank.document.dto.statement;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public record StatementLine(
+        LocalDateTime timestamp,
+        String counterpartyIban,
+        String counterpartyName,
+        String description,
+        // negative for money leaving the account
+        BigDecimal amount
+) {
+}
@@ -9,6 +9,9 @@ import org.slf4j.LoggerFactory;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @Component
 public class DocumentListener {
 
@@ -22,15 +25,23 @@ public class DocumentListener {
         this.objectMapper = objectMapper;
     }
 
-    @RabbitListener(queues = "transaction-queue")
-    public void handleTransactionMessage(String message) {
-        try {
-            TransactionEvent event = objectMapper.readValue(message, TransactionEvent.class);
-            documentService.createTransactionDocumentFromEvent(event);
+    @RabbitListener(queues = "document-transaction-queue", containerFactory = "transactionListenerContainerFactory")
+    public void handleTransactionMessages(List<String> messages) {
+        List<TransactionEvent> events = new ArrayList<>(messages.size());
+        for (String message : messages) {
+            try {
+                events.add(objectMapper.readValue(message, TransactionEvent.class));
+            } catch (Exception e) {
+                // A malformed message would fail every redelivery of the batch, so it is dropped here
+                log.error("Discarding unreadable transaction message: {}", message, e);
+            }
+        }
 
+        try {
+            documentService.createTransactionDocumentsFromEvents(events);
         } catch (Exception e) {
-            log.error("Error while processing transaction message", e);
-            throw new CustomException("Error while processing transaction message", e);
+            log.error("Error while processing a batch of {} transaction messages", messages.size(), e);
+            throw new CustomException("Error while processing transaction messages", e);
         }
     }
 
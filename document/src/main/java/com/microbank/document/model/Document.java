@@ -7,7 +7,10 @@ import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
-@Table(name = "documents")
+@Table(name = "documents", indexes = {
+        @Index(name = "idx_documents_sender_iban_timestamp", columnList = "senderAccountIban, timestamp"),
+        @Index(name = "idx_documents_receiver_iban_timestamp", columnList = "receiverAccountIban, timestamp")
+})
 public class Document {
 
     @Id
@@ -20,8 +23,9 @@ public class Document {
     @Column(nullable = false, length = 512)
     private String documentName;
 
-    @Column(nullable = false, length = 2048)
-    private String documentUrl;
+    // rows written before buckets were recorded fall back to minio.bucket-name
+    @Column(length = 63)
+    private String bucketName;
 
     @Column(nullable = false)
     private String senderAccountIban;
@@ -49,7 +53,7 @@ public class Document {
             UUID id,
             UUID transactionId,
             String documentName,
-            String documentUrl,
+            String bucketName,
             String senderAccountIban,
             String receiverAccountIban,
             String senderAccountOwnerName,
@@ -61,7 +65,7 @@ public class Document {
         this.id = id;
         this.transactionId = transactionId;
         this.documentName = documentName;
-        this.documentUrl = documentUrl;
+        this.bucketName = bucketName;
         this.senderAccountIban = senderAccountIban;
         this.receiverAccountIban = receiverAccountIban;
         this.senderAccountOwnerName = senderAccountOwnerName;
@@ -95,12 +99,12 @@ public class Document {
         this.documentName = documentName;
     }
 
-    public String getDocumentUrl() {
-        return documentUrl;
+    public String getBucketName() {
+        return bucketName;
     }
 
-    public void setDocumentUrl(String documentUrl) {
-        this.documentUrl = documentUrl;
+    public void setBucketName(String bucketName) {
+        this.bucketName = bucketName;
     }
 
     public String getSenderAccountIban() {
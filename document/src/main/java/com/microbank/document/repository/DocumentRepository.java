@@ -1,13 +1,52 @@
 package com.microbank.document.repository;
 
 import com.microbank.document.model.Document;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 public interface DocumentRepository extends JpaRepository<Document, UUID> {
 
     Optional<Document> findByTransactionId(UUID transactionId);
+    List<Document> findAllByTransactionIdIn(Collection<UUID> transactionIds);
+
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query(value = """
+            SELECT sender_account_iban FROM documents WHERE timestamp >= :from AND timestamp < :to
+            UNION
+            SELECT receiver_account_iban FROM documents WHERE timestamp >= :from AND timestamp < :to
+            """, nativeQuery = true)
+    Stream<String> streamIbansActiveBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("""
+            SELECT d FROM Document d
+            WHERE (d.senderAccountIban = :iban OR d.receiverAccountIban = :iban)
+              AND d.timestamp >= :from AND d.timestamp < :to
+            ORDER BY d.timestamp, d.id
+            """)
+    Stream<Document> streamByIbanBetween(
+            @Param("iban") String iban,
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to
+    );
 
 }
@@ -9,8 +9,9 @@ import java.util.UUID;
 
 public interface DocumentService {
 
-    // is being processed asynchronously in transaction-queue
+    // is being processed asynchronously in document-transaction-queue
     void createTransactionDocumentFromEvent(TransactionEvent event);
+    void createTransactionDocumentsFromEvents(List<TransactionEvent> events);
 
     // are being injected to the controller level to be utilized as endpoints
     BaseApiResponse<TransactionDocumentResponse> getTransactionDocumentById(UUID documentId);
@@ -1,9 +1,21 @@
 package com.microbank.document.service;
 
-import java.io.InputStream;
+import java.io.IOException;
+import java.io.OutputStream;
 
 public interface MinIOService {
 
-    String uploadFile(String fileName, InputStream fileStream, String contentType);
+    // content is streamed into the object as the writer produces it, without buffering the whole file
+    void uploadFile(String fileName, String contentType, ContentWriter writer);
+
+    // presigned GET URL for an object, minted on demand and shared between callers for a short window
+    String getPresignedUrl(String bucketName, String objectName);
+
+    String getBucketName();
+
+    @FunctionalInterface
+    interface ContentWriter {
+        void writeTo(OutputStream outputStream) throws IOException;
+    }
 
 }
@@ -0,0 +1,17 @@
+package com.microbank.document.service;
+
+import com.microbank.document.dto.response.StatementRunResponse;
+import com.microbank.document.response.BaseApiResponse;
+
+import java.time.YearMonth;
+
+public interface StatementService {
+
+    // renders one statement synchronously and returns the object name it was stored under
+    String generateStatement(String iban, YearMonth period);
+
+    // runs in the background over every account with activity in the period, one run at a time
+    BaseApiResponse<StatementRunResponse> startMonthlyStatements(YearMonth period);
+    BaseApiResponse<StatementRunResponse> getStatementRunStatus();
+
+}
@@ -9,12 +9,15 @@ import com.microbank.document.service.DocumentService;
 import com.microbank.document.service.MinIOService;
 import com.microbank.document.service.utils.TransactionDocumentResponseBuilder;
 import com.microbank.document.utils.PDFGenerator;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 
-import java.io.ByteArrayInputStream;
-import java.util.List;
-import java.util.UUID;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
 
 @Service
 public class DocumentServiceImpl implements DocumentService {
@@ -22,27 +25,79 @@ public class DocumentServiceImpl implements DocumentService {
     private final DocumentRepository documentRepository;
     private final MinIOService minIOService;
     private final TransactionDocumentResponseBuilder transactionDocumentResponseBuilder;
+    private final Executor documentRenderExecutor;
 
     public DocumentServiceImpl(
             DocumentRepository documentRepository,
             MinIOService minIOService,
-            TransactionDocumentResponseBuilder transactionDocumentResponseBuilder
+            TransactionDocumentResponseBuilder transactionDocumentResponseBuilder,
+            @Qualifier("documentRenderExecutor") Executor documentRenderExecutor
     ) {
         this.documentRepository = documentRepository;
         this.minIOService = minIOService;
         this.transactionDocumentResponseBuilder = transactionDocumentResponseBuilder;
+        this.documentRenderExecutor = documentRenderExecutor;
     }
 
     @Override
     public void createTransactionDocumentFromEvent(TransactionEvent event) {
-        ByteArrayInputStream pdfStream = PDFGenerator.generateTransactionDocument(event);
+        createTransactionDocumentsFromEvents(List.of(event));
+    }
+
+    @Override
+    public void createTransactionDocumentsFromEvents(List<TransactionEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+
+        // Redelivered events already have a document, so only render the ones that are new
+        Set<UUID> existing = documentRepository.findAllByTransactionIdIn(
+                        events.stream().map(TransactionEvent::transactionId).toList()
+                ).stream()
+                .map(Document::getTransactionId)
+                .collect(Collectors.toSet());
+
+        Map<UUID, TransactionEvent> pending = new LinkedHashMap<>();
+        for (TransactionEvent event : events) {
+            if (!existing.contains(event.transactionId())) {
+                pending.putIfAbsent(event.transactionId(), event);
+            }
+        }
+
+        List<CompletableFuture<Document>> futures = pending.values().stream()
+                .map(event -> CompletableFuture.supplyAsync(() -> buildTransactionDocument(event), documentRenderExecutor))
+                .toList();
+
+        List<Document> documents = new ArrayList<>(futures.size());
+        RuntimeException failure = null;
+        for (CompletableFuture<Document> future : futures) {
+            try {
+                documents.add(future.join());
+            } catch (CompletionException e) {
+                failure = e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+
+        // Keep what succeeded so a redelivery of the batch only redoes the failed documents
+        documentRepository.saveAll(documents);
+
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private Document buildTransactionDocument(TransactionEvent event) {
         String fileName = "TRANSACTION-" + event.transactionId() + ".pdf";
-        String fileUrl = minIOService.uploadFile(fileName, pdfStream, "application/pdf");
+        minIOService.uploadFile(
+                fileName,
+                "application/pdf",
+                out -> PDFGenerator.writeTransactionDocument(event, out)
+        );
 
         Document document = new Document();
         document.setTransactionId(event.transactionId());
         document.setDocumentName(fileName);
-        document.setDocumentUrl(fileUrl);
+        document.setBucketName(minIOService.getBucketName());
         document.setSenderAccountIban(event.senderAccountIban());
         document.setReceiverAccountIban(event.receiverAccountIban());
         document.setSenderAccountOwnerName(event.senderAccountOwnerName());
@@ -50,8 +105,7 @@ public class DocumentServiceImpl implements DocumentService {
         document.setAmount(event.amount());
         document.setDescription(event.description());
         document.setTimestamp(event.timestamp());
-
-        documentRepository.save(document);
+        return document;
     }
 
 
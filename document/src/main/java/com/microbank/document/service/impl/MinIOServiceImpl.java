@@ -3,31 +3,162 @@ package com.microbank.document.service.impl;
 import com.microbank.document.exception.CustomException;
 import com.microbank.document.service.MinIOService;
 import io.minio.*;
+import io.minio.errors.ErrorResponseException;
 import io.minio.http.Method;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
 
-import java.io.InputStream;
+import java.io.IOException;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class MinIOServiceImpl implements MinIOService {
 
     private static final Logger log = LoggerFactory.getLogger(MinIOServiceImpl.class);
 
+    private static final int PIPE_BUFFER_SIZE = 64 * 1024;
+
     private final MinioClient minioClient;
+    private final ExecutorService minioUploadExecutor;
+    private final Semaphore uploadPermits;
+    private final Duration acquireTimeout;
+    private final Timer uploadTimer;
+
+    private volatile boolean bucketReady;
+
+    // A URL minted in a window stays valid for at least (expiry - window) after the window ends
+    private final Map<PresignedUrlKey, String> presignedUrls = new ConcurrentHashMap<>();
+    private volatile long currentUrlWindow;
+
+    @Value("${minio.presigned-url.expiry:1h}")
+    private Duration presignedUrlExpiry;
+
+    @Value("${minio.presigned-url.cache-window:10m}")
+    private Duration presignedUrlCacheWindow;
 
     @Value("${minio.bucket-name}")
     private String bucketName;
 
-    public MinIOServiceImpl(MinioClient minioClient) {
+    // objects are sent as multipart uploads of this size, which bounds the client buffer per upload
+    @Value("${minio.upload.part-size:5MB}")
+    private DataSize partSize;
+
+    public MinIOServiceImpl(
+            MinioClient minioClient,
+            @Qualifier("minioUploadExecutor") ExecutorService minioUploadExecutor,
+            MeterRegistry meterRegistry,
+            @Value("${minio.upload.concurrency:8}") int uploadConcurrency,
+            @Value("${minio.upload.acquire-timeout:30s}") Duration acquireTimeout
+    ) {
         this.minioClient = minioClient;
+        this.minioUploadExecutor = minioUploadExecutor;
+        this.uploadPermits = new Semaphore(uploadConcurrency, true);
+        this.acquireTimeout = acquireTimeout;
+
+        this.uploadTimer = Timer.builder("document.minio.upload")
+                .description("Time spent streaming a document into MinIO")
+                .register(meterRegistry);
+        Gauge.builder("document.minio.upload.in-flight", uploadPermits, permits -> uploadConcurrency - permits.availablePermits())
+                .description("Uploads currently holding an upload slot")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void provisionBucket() {
+        try {
+            ensureBucket();
+        } catch (Exception e) {
+            // Not fatal, the first upload tries again
+            log.warn("Could not provision MinIO bucket {} at startup: {}", bucketName, e.getMessage());
+        }
     }
 
     @Override
-    public String uploadFile(String fileName, InputStream fileStream, String contentType) {
+    public void uploadFile(String fileName, String contentType, ContentWriter writer) {
         try {
+            ensureBucket();
+
+            // Callers wait here once every upload slot is busy, so rendering cannot outrun MinIO
+            if (!uploadPermits.tryAcquire(acquireTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new CustomException("Timed out waiting for a free MinIO upload slot");
+            }
+            try {
+                uploadTimer.recordCallable(() -> {
+                    streamObject(fileName, contentType, writer);
+                    return null;
+                });
+            } finally {
+                uploadPermits.release();
+            }
+        } catch (Exception e) {
+            if (e instanceof ErrorResponseException errorResponse && "NoSuchBucket".equals(errorResponse.errorResponse().code())) {
+                // The bucket was removed behind our back, provision it again on the next upload
+                bucketReady = false;
+            }
+            log.error("Failed to upload {} to MinIO bucket {}", fileName, bucketName, e);
+            throw new CustomException("Error while uploading file to MinIO", e);
+        }
+    }
+
+    @Override
+    public String getPresignedUrl(String bucketName, String objectName) {
+        long window = System.currentTimeMillis() / presignedUrlCacheWindow.toMillis();
+        if (window != currentUrlWindow) {
+            currentUrlWindow = window;
+            // Entries from earlier windows are never looked up again
+            presignedUrls.keySet().removeIf(key -> key.window() < window);
+        }
+
+        return presignedUrls.computeIfAbsent(new PresignedUrlKey(bucketName, objectName, window), key -> {
+            try {
+                return minioClient.getPresignedObjectUrl(
+                        GetPresignedObjectUrlArgs.builder()
+                                .bucket(key.bucketName())
+                                .object(key.objectName())
+                                .method(Method.GET)
+                                .expiry((int) presignedUrlExpiry.toSeconds())
+                                .build()
+                );
+            } catch (Exception e) {
+                log.error("Failed to presign {} in MinIO bucket {}", key.objectName(), key.bucketName(), e);
+                throw new CustomException("Error while generating document URL", e);
+            }
+        });
+    }
+
+    @Override
+    public String getBucketName() {
+        return bucketName;
+    }
+
+    private void ensureBucket() throws Exception {
+        if (bucketReady) {
+            return;
+        }
+
+        synchronized (this) {
+            if (bucketReady) {
+                return;
+            }
+
             boolean bucketExists = minioClient.bucketExists(
                     BucketExistsArgs.builder().bucket(bucketName).build()
             );
@@ -38,25 +169,58 @@ public class MinIOServiceImpl implements MinIOService {
                 );
             }
 
-            minioClient.putObject(
-                    PutObjectArgs.builder()
-                            .bucket(bucketName)
-                            .object(fileName)
-                            .stream(fileStream, fileStream.available(), -1)
-                            .contentType(contentType)
-                            .build()
-            );
+            bucketReady = true;
+        }
+    }
 
-            return minioClient.getPresignedObjectUrl(
-                    GetPresignedObjectUrlArgs.builder()
-                            .bucket(bucketName)
-                            .object(fileName)
-                            .method(Method.GET)
-                            .build()
-            );
-        } catch (Exception e) {
-            log.error("Failed to upload {} to MinIO bucket {}", fileName, bucketName, e);
-            throw new CustomException("Error while uploading file to MinIO", e);
+    private void streamObject(String fileName, String contentType, ContentWriter writer) throws Exception {
+        PipedInputStream in = new PipedInputStream(PIPE_BUFFER_SIZE);
+        PipedOutputStream out = new PipedOutputStream(in);
+
+        // The upload reads the pipe on another thread while this thread writes into it
+        Future<ObjectWriteResponse> upload = minioUploadExecutor.submit(() -> {
+            try (in) {
+                return minioClient.putObject(
+                        PutObjectArgs.builder()
+                                .bucket(bucketName)
+                                .object(fileName)
+                                .stream(in, -1, partSize.toBytes())
+                                .contentType(contentType)
+                                .build()
+                );
+            }
+        });
+
+        try {
+            writer.writeTo(out);
+        } catch (IOException | RuntimeException e) {
+            if (upload.isDone()) {
+                // The upload failed first and broke the pipe, its error is the one worth reporting
+                awaitUpload(upload);
+            }
+            // Closing the read side fails the upload instead of letting it store a truncated object
+            in.close();
+            try {
+                awaitUpload(upload);
+            } catch (Exception ignored) {
+                // expected, the upload was aborted on purpose
+            }
+            throw e;
+        }
+
+        // Closing the write side signals end of stream, which lets putObject finish
+        out.close();
+        awaitUpload(upload);
+    }
+
+    private record PresignedUrlKey(String bucketName, String objectName, long window) {
+    }
+
+    private static void awaitUpload(Future<ObjectWriteResponse> upload) throws Exception {
+        try {
+            upload.get();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception cause ? cause : e;
         }
     }
 }
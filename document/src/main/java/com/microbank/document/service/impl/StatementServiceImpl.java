@@ -0,0 +1,289 @@
+package com.microbank.document.service.impl;
+
+import com.microbank.document.dto.response.StatementRunResponse;
+import com.microbank.document.dto.statement.StatementLine;
+import com.microbank.document.exception.CustomException;
+import com.microbank.document.model.Document;
+import com.microbank.document.repository.DocumentRepository;
+import com.microbank.document.response.BaseApiResponse;
+import com.microbank.document.service.MinIOService;
+import com.microbank.document.service.StatementService;
+import com.microbank.document.utils.PDFGenerator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.Iterator;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+/**
+ * Builds monthly account statements from the stored transaction documents.
+ * A single coordinator streams the accounts active in the period and hands each one to the statement pool;
+ * the number of accounts queued or rendering at once is capped so a run never buffers the whole account list.
+ */
+@Service
+public class StatementServiceImpl implements StatementService {
+
+    private static final Logger log = LoggerFactory.getLogger(StatementServiceImpl.class);
+
+    private final DocumentRepository documentRepository;
+    private final MinIOService minIOService;
+    private final EntityManager entityManager;
+    private final ForkJoinPool statementExecutor;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ExecutorService coordinator;
+    private final Semaphore inFlight;
+    private final int maxInFlight;
+
+    private final AtomicReference<StatementRun> currentRun = new AtomicReference<>();
+
+    private final Counter generatedCounter;
+    private final Counter failedCounter;
+    private final Timer renderTimer;
+
+    @Value("${document.statements.enabled:true}")
+    private boolean scheduledRunsEnabled;
+
+    public StatementServiceImpl(
+            DocumentRepository documentRepository,
+            MinIOService minIOService,
+            EntityManager entityManager,
+            PlatformTransactionManager transactionManager,
+            @Qualifier("statementExecutor") ForkJoinPool statementExecutor,
+            MeterRegistry meterRegistry
+    ) {
+        this.documentRepository = documentRepository;
+        this.minIOService = minIOService;
+        this.entityManager = entityManager;
+        this.statementExecutor = statementExecutor;
+
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+
+        this.coordinator = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "document-statement-coordinator"));
+        // a couple of queued accounts per worker keeps the pool busy without reading far ahead
+        this.maxInFlight = statementExecutor.getParallelism() * 2;
+        this.inFlight = new Semaphore(maxInFlight);
+
+        this.generatedCounter = Counter.builder("document.statements.generated")
+                .description("Account statements rendered and uploaded")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("document.statements.failed")
+                .description("Account statements that could not be generated")
+                .register(meterRegistry);
+        this.renderTimer = Timer.builder("document.statements.render")
+                .description("Time spent reading, rendering and uploading one account statement")
+                .register(meterRegistry);
+        Gauge.builder("document.statements.in-flight", inFlight, permits -> maxInFlight - permits.availablePermits())
+                .description("Accounts of the current run queued or being rendered")
+                .register(meterRegistry);
+        Gauge.builder("document.statements.run.dispatched", currentRun, run -> run.get() == null ? 0 : run.get().dispatched.get())
+                .description("Accounts handed to the statement pool in the current or last run")
+                .register(meterRegistry);
+        Gauge.builder("document.statements.run.finished", currentRun,
+                        run -> run.get() == null ? 0 : run.get().completed.get() + run.get().failed.get())
+                .description("Accounts finished, successfully or not, in the current or last run")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String generateStatement(String iban, YearMonth period) {
+        String objectName = "STATEMENT-" + iban + "-" + period + ".pdf";
+        LocalDateTime from = period.atDay(1).atStartOfDay();
+        LocalDateTime to = period.plusMonths(1).atDay(1).atStartOfDay();
+
+        renderTimer.record(() -> readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<Document> documents = documentRepository.streamByIbanBetween(iban, from, to)) {
+                Iterator<Document> rows = documents.iterator();
+                Document first = rows.hasNext() ? rows.next() : null;
+                String ownerName = first == null ? null
+                        : iban.equals(first.getSenderAccountIban())
+                        ? first.getSenderAccountOwnerName()
+                        : first.getReceiverAccountOwnerName();
+
+                Iterator<StatementLine> lines = new Iterator<>() {
+                    private Document pending = first;
+
+                    @Override
+                    public boolean hasNext() {
+                        return pending != null || rows.hasNext();
+                    }
+
+                    @Override
+                    public StatementLine next() {
+                        Document document = pending != null ? pending : rows.next();
+                        pending = null;
+                        // rows are rendered once, dropping them keeps the persistence context flat for large accounts
+                        entityManager.detach(document);
+                        return toStatementLine(iban, document);
+                    }
+                };
+
+                // the writer runs on this thread, so the cursor is consumed inside the read-only transaction
+                minIOService.uploadFile(
+                        objectName,
+                        "application/pdf",
+                        out -> PDFGenerator.writeStatement(iban, ownerName, period, lines, out)
+                );
+            }
+        }));
+
+        generatedCounter.increment();
+        return objectName;
+    }
+
+    @Override
+    public BaseApiResponse<StatementRunResponse> startMonthlyStatements(YearMonth period) {
+        if (!period.isBefore(YearMonth.now())) {
+            throw new CustomException("Statements can only be generated for a completed month.");
+        }
+
+        StatementRun run = new StatementRun(period);
+        StatementRun previous = currentRun.get();
+        if ((previous != null && previous.running) || !currentRun.compareAndSet(previous, run)) {
+            throw new CustomException("A statement run is already in progress.");
+        }
+
+        coordinator.execute(() -> runStatements(run));
+
+        return new BaseApiResponse<>(
+                HttpStatus.ACCEPTED.value(),
+                "Statement generation for " + period + " started.",
+                run.toResponse()
+        );
+    }
+
+    @Override
+    public BaseApiResponse<StatementRunResponse> getStatementRunStatus() {
+        StatementRun run = currentRun.get();
+        if (run == null) {
+            throw new CustomException("No statement run has been started yet.");
+        }
+        return new BaseApiResponse<>(
+                HttpStatus.OK.value(),
+                "Statement run for " + run.period + " retrieved successfully.",
+                run.toResponse()
+        );
+    }
+
+    @Scheduled(cron = "${document.statements.cron:0 0 2 1 * *}")
+    public void runScheduledStatements() {
+        if (!scheduledRunsEnabled) {
+            return;
+        }
+        try {
+            startMonthlyStatements(YearMonth.now().minusMonths(1));
+        } catch (CustomException e) {
+            log.warn("Skipping scheduled statement run: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        coordinator.shutdownNow();
+    }
+
+    private void runStatements(StatementRun run) {
+        LocalDateTime from = run.period.atDay(1).atStartOfDay();
+        LocalDateTime to = run.period.plusMonths(1).atDay(1).atStartOfDay();
+        log.info("Starting statement run for {}", run.period);
+
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<String> ibans = documentRepository.streamIbansActiveBetween(from, to)) {
+                    ibans.forEach(iban -> dispatch(run, iban));
+                }
+            });
+
+            // every permit back means every dispatched account has finished
+            inFlight.acquire(maxInFlight);
+            inFlight.release(maxInFlight);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Statement run for {} was interrupted", run.period);
+        } catch (RuntimeException e) {
+            log.error("Statement run for {} stopped early: {}", run.period, e.getMessage(), e);
+        } finally {
+            run.running = false;
+            log.info("Finished statement run for {}: {} generated, {} failed",
+                    run.period, run.completed.get(), run.failed.get());
+        }
+    }
+
+    private void dispatch(StatementRun run, String iban) {
+        try {
+            inFlight.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CustomException("Interrupted while dispatching statements.");
+        }
+
+        run.dispatched.incrementAndGet();
+        try {
+            statementExecutor.execute(() -> {
+                try {
+                    generateStatement(iban, run.period);
+                    run.completed.incrementAndGet();
+                } catch (RuntimeException e) {
+                    run.failed.incrementAndGet();
+                    failedCounter.increment();
+                    log.error("Failed to generate the {} statement for {}: {}", run.period, iban, e.getMessage());
+                } finally {
+                    inFlight.release();
+                }
+            });
+        } catch (RuntimeException e) {
+            inFlight.release();
+            throw e;
+        }
+    }
+
+    private static StatementLine toStatementLine(String iban, Document document) {
+        boolean outgoing = iban.equals(document.getSenderAccountIban());
+        return new StatementLine(
+                document.getTimestamp(),
+                outgoing ? document.getReceiverAccountIban() : document.getSenderAccountIban(),
+                outgoing ? document.getReceiverAccountOwnerName() : document.getSenderAccountOwnerName(),
+                document.getDescription(),
+                outgoing ? document.getAmount().negate() : document.getAmount()
+        );
+    }
+
+    private static final class StatementRun {
+
+        private final YearMonth period;
+        private final AtomicLong dispatched = new AtomicLong();
+        private final AtomicLong completed = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private volatile boolean running = true;
+
+        private StatementRun(YearMonth period) {
+            this.period = period;
+        }
+
+        private StatementRunResponse toResponse() {
+            return new StatementRunResponse(period, running, dispatched.get(), completed.get(), failed.get());
+        }
+    }
+
+}
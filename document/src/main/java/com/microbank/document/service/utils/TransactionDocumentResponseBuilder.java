@@ -2,6 +2,7 @@ package com.microbank.document.service.utils;
 
 import com.microbank.document.dto.response.TransactionDocumentResponse;
 import com.microbank.document.model.Document;
+import com.microbank.document.service.MinIOService;
 import org.springframework.stereotype.Component;
 
 import java.util.ArrayList;
@@ -10,9 +11,16 @@ import java.util.List;
 @Component
 public class TransactionDocumentResponseBuilder {
 
+    private final MinIOService minIOService;
+
+    public TransactionDocumentResponseBuilder(MinIOService minIOService) {
+        this.minIOService = minIOService;
+    }
+
     public TransactionDocumentResponse buildTransactionDocumentResponse(Document d) {
+        String bucketName = d.getBucketName() != null ? d.getBucketName() : minIOService.getBucketName();
         return new TransactionDocumentResponse(
-                d.getDocumentUrl(),
+                minIOService.getPresignedUrl(bucketName, d.getDocumentName()),
                 d.getDocumentName(),
                 d.getTransactionId(),
                 d.getSenderAccountIban(),
@@ -26,6 +34,7 @@ public class TransactionDocumentResponseBuilder {
         );
     }
 
+    // presigning is a local signature and each URL is reused for the cache window, so lists carry URLs too
     public List<TransactionDocumentResponse> buildTransactionDocumentResponses(List<Document> documents) {
         List<TransactionDocumentResponse> transactionDocumentResponses = new ArrayList<>();
         for (Document d : documents) {
@@ -1,28 +1,304 @@
 package com.microbank.document.utils;
 
 import com.microbank.document.dto.event.TransactionEvent;
+import com.microbank.document.dto.statement.StatementLine;
 import com.microbank.document.exception.CustomException;
+import org.apache.fontbox.ttf.TTFParser;
+import org.apache.fontbox.ttf.TrueTypeFont;
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.io.RandomAccessReadBuffer;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.PDPage;
 import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.font.PDFont;
 import org.apache.pdfbox.pdmodel.font.PDType0Font;
 import org.springframework.core.io.ClassPathResource;
 
-import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
+import java.util.Iterator;
 
+/**
+ * Renders transaction receipts from a pre-built template page.
+ * The title, rule, table grid, row labels and disclaimer are drawn once into {@link #TEMPLATE};
+ * each receipt only loads that page and fills in the value column.
+ * Account statements are laid out row by row through {@link StatementLayout}, which breaks pages as it goes.
+ */
 public class PDFGenerator {
 
-    public static ByteArrayInputStream generateTransactionDocument(TransactionEvent event) {
+    private static final float TABLE_X = 50;
+    private static final float TABLE_Y = 680;
+    private static final float TABLE_WIDTH = 500;
+    private static final float ROW_HEIGHT = 25;
+    private static final float COLUMN_WIDTH = TABLE_WIDTH / 2;
+
+    private static final String[] ROW_LABELS = {
+            "Source Account",
+            "Source Owner",
+            "Target Account",
+            "Target Owner",
+            "Amount",
+            "Description",
+            "Timestamp"
+    };
+
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final DateTimeFormatter STATEMENT_DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+    private static final DateTimeFormatter STATEMENT_PERIOD_FORMAT = DateTimeFormatter.ofPattern("MMMM yyyy");
+
+    private static final float STATEMENT_FONT_SIZE = 9;
+    private static final float STATEMENT_ROW_HEIGHT = 14;
+    private static final float STATEMENT_FIRST_ROW_Y = 680;
+    private static final float STATEMENT_LAST_ROW_Y = 80;
+    private static final float STATEMENT_RIGHT_X = 550;
+    private static final float[] STATEMENT_COLUMN_X = {50, 140, 320, 470};
+    private static final float[] STATEMENT_COLUMN_WIDTH = {85, 175, 145, 80};
+    private static final String[] STATEMENT_COLUMNS = {"Date", "Counterparty", "Description", "Amount"};
+
+    private static final byte[] FONT_BYTES = readFont();
+
+    // Parsed once per rendering thread: a TrueTypeFont is read again while subsetting on save, so it cannot be shared
+    private static final ThreadLocal<TrueTypeFont> FONT = ThreadLocal.withInitial(PDFGenerator::parseFont);
+
+    private static final byte[] TEMPLATE = buildTemplate();
+
+    public static void writeTransactionDocument(TransactionEvent event, OutputStream out) {
+        try (PDDocument document = Loader.loadPDF(TEMPLATE)) {
+            PDPage page = document.getPage(0);
+            PDFont font = PDType0Font.load(document, FONT.get(), true);
+
+            String[] values = {
+                    event.senderAccountIban(),
+                    event.senderAccountOwnerName(),
+                    event.receiverAccountIban(),
+                    event.receiverAccountOwnerName(),
+                    "$" + event.amount(),
+                    event.description(),
+                    event.timestamp().format(TIMESTAMP_FORMAT)
+            };
+
+            try (PDPageContentStream contentStream = new PDPageContentStream(
+                    document, page, PDPageContentStream.AppendMode.APPEND, true, true)) {
+                contentStream.setFont(font, 12);
+                contentStream.beginText();
+                contentStream.newLineAtOffset(TABLE_X + COLUMN_WIDTH + 5, TABLE_Y - ROW_HEIGHT - 18);
+                for (int row = 0; row < values.length; row++) {
+                    if (row > 0) {
+                        contentStream.newLineAtOffset(0, -ROW_HEIGHT);
+                    }
+                    contentStream.showText(values[row] == null ? "" : values[row]);
+                }
+                contentStream.endText();
+            }
+
+            // Saves straight into the caller's stream, the finished file is never held in memory as a whole
+            document.save(out);
+
+        } catch (Exception e) {
+            throw new CustomException("Error while creating PDF: " + e.getMessage());
+        }
+    }
+
+    public static void writeStatement(
+            String iban,
+            String ownerName,
+            YearMonth period,
+            Iterator<StatementLine> lines,
+            OutputStream out
+    ) {
+        try (PDDocument document = new PDDocument()) {
+            PDFont font = PDType0Font.load(document, FONT.get(), true);
+            String heading = "Account " + iban + (ownerName == null ? "" : " - " + clean(ownerName))
+                    + " - " + period.format(STATEMENT_PERIOD_FORMAT);
+
+            BigDecimal moneyIn = BigDecimal.ZERO;
+            BigDecimal moneyOut = BigDecimal.ZERO;
+            int count = 0;
+
+            try (StatementLayout layout = new StatementLayout(document, font, heading)) {
+                while (lines.hasNext()) {
+                    StatementLine line = lines.next();
+                    layout.row(
+                            line.timestamp().format(STATEMENT_DATE_FORMAT),
+                            line.counterpartyIban() + (line.counterpartyName() == null ? "" : " " + line.counterpartyName()),
+                            line.description(),
+                            line.amount().toPlainString()
+                    );
+
+                    if (line.amount().signum() < 0) {
+                        moneyOut = moneyOut.add(line.amount().negate());
+                    } else {
+                        moneyIn = moneyIn.add(line.amount());
+                    }
+                    count++;
+                }
+
+                layout.gap();
+                layout.summary("Transactions", String.valueOf(count));
+                layout.summary("Money in", "$" + moneyIn.toPlainString());
+                layout.summary("Money out", "$" + moneyOut.toPlainString());
+                layout.summary("Net change", "$" + moneyIn.subtract(moneyOut).toPlainString());
+            }
+
+            // The page count is only known once every row is placed, so footers go on last
+            int pages = document.getNumberOfPages();
+            for (int i = 0; i < pages; i++) {
+                try (PDPageContentStream contentStream = new PDPageContentStream(
+                        document, document.getPage(i), PDPageContentStream.AppendMode.APPEND, true, true)) {
+                    contentStream.setFont(font, 8);
+                    contentStream.beginText();
+                    contentStream.newLineAtOffset(50, 40);
+                    contentStream.showText("This statement is electronically generated and does not require a signature.");
+                    contentStream.newLineAtOffset(450, 0);
+                    contentStream.showText("Page " + (i + 1) + " of " + pages);
+                    contentStream.endText();
+                }
+            }
+
+            document.save(out);
+
+        } catch (CustomException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new CustomException("Error while creating statement PDF: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Places statement rows top to bottom, starting a new page with the title and column header
+     * whenever the current one is full.
+     */
+    private static final class StatementLayout implements AutoCloseable {
+
+        private final PDDocument document;
+        private final PDFont font;
+        private final String heading;
+
+        private PDPageContentStream contentStream;
+        private float y;
+
+        private StatementLayout(PDDocument document, PDFont font, String heading) {
+            this.document = document;
+            this.font = font;
+            this.heading = heading;
+        }
+
+        void row(String... cells) throws IOException {
+            ensureRoom();
+            for (int column = 0; column < cells.length; column++) {
+                String text = fit(cells[column], STATEMENT_COLUMN_WIDTH[column]);
+                float x = column == cells.length - 1
+                        ? STATEMENT_RIGHT_X - width(text)
+                        : STATEMENT_COLUMN_X[column];
+                text(x, y, text);
+            }
+            y -= STATEMENT_ROW_HEIGHT;
+        }
+
+        void summary(String label, String value) throws IOException {
+            ensureRoom();
+            text(STATEMENT_COLUMN_X[2], y, label);
+            text(STATEMENT_RIGHT_X - width(value), y, value);
+            y -= STATEMENT_ROW_HEIGHT;
+        }
+
+        void gap() throws IOException {
+            ensureRoom();
+            contentStream.moveTo(STATEMENT_COLUMN_X[2], y + STATEMENT_ROW_HEIGHT - 4);
+            contentStream.lineTo(STATEMENT_RIGHT_X, y + STATEMENT_ROW_HEIGHT - 4);
+            contentStream.stroke();
+            y -= STATEMENT_ROW_HEIGHT / 2;
+        }
+
+        private void ensureRoom() throws IOException {
+            if (contentStream != null && y >= STATEMENT_LAST_ROW_Y) {
+                return;
+            }
+            close();
+
+            PDPage page = new PDPage();
+            document.addPage(page);
+            contentStream = new PDPageContentStream(document, page);
+
+            contentStream.setFont(font, 16);
+            contentStream.beginText();
+            contentStream.newLineAtOffset(50, 750);
+            contentStream.showText("MicroBank - Account Statement");
+            contentStream.endText();
+
+            contentStream.setFont(font, STATEMENT_FONT_SIZE);
+            text(50, 732, fit(heading, STATEMENT_RIGHT_X - 50));
+
+            contentStream.setLineWidth(1.0f);
+            contentStream.moveTo(50, 722);
+            contentStream.lineTo(STATEMENT_RIGHT_X, 722);
+            contentStream.stroke();
+
+            for (int column = 0; column < STATEMENT_COLUMNS.length; column++) {
+                float x = column == STATEMENT_COLUMNS.length - 1
+                        ? STATEMENT_RIGHT_X - width(STATEMENT_COLUMNS[column])
+                        : STATEMENT_COLUMN_X[column];
+                text(x, 705, STATEMENT_COLUMNS[column]);
+            }
+
+            contentStream.setLineWidth(0.5f);
+            contentStream.moveTo(50, 698);
+            contentStream.lineTo(STATEMENT_RIGHT_X, 698);
+            contentStream.stroke();
+
+            y = STATEMENT_FIRST_ROW_Y;
+        }
+
+        private void text(float x, float y, String text) throws IOException {
+            contentStream.beginText();
+            contentStream.newLineAtOffset(x, y);
+            contentStream.showText(text);
+            contentStream.endText();
+        }
+
+        private String fit(String text, float maxWidth) throws IOException {
+            String cleaned = clean(text);
+            if (width(cleaned) <= maxWidth) {
+                return cleaned;
+            }
+            float budget = maxWidth - width("...");
+            int end = cleaned.length();
+            while (end > 0 && width(cleaned.substring(0, end)) > budget) {
+                end--;
+            }
+            return cleaned.substring(0, end) + "...";
+        }
+
+        private float width(String text) throws IOException {
+            return font.getStringWidth(text) / 1000 * STATEMENT_FONT_SIZE;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (contentStream != null) {
+                contentStream.close();
+                contentStream = null;
+            }
+        }
+    }
+
+    // showText cannot place control characters, free text from events may contain line breaks
+    private static String clean(String text) {
+        return text == null ? "" : text.replaceAll("\\p{Cntrl}", " ");
+    }
+
+    private static byte[] buildTemplate() {
         try (PDDocument document = new PDDocument(); ByteArrayOutputStream out = new ByteArrayOutputStream()) {
             PDPage page = new PDPage();
             document.addPage(page);
+            PDFont font = PDType0Font.load(document, parseFont(), true);
 
             try (PDPageContentStream contentStream = new PDPageContentStream(document, page)) {
-                var fontStream = new ClassPathResource("fonts/Arial.ttf").getInputStream();
-                var font = PDType0Font.load(document, fontStream);
-
                 contentStream.setFont(font, 20);
                 contentStream.beginText();
                 contentStream.newLineAtOffset(200, 750);
@@ -40,26 +316,8 @@ public class PDFGenerator {
                 contentStream.showText("Transaction Details:");
                 contentStream.endText();
 
-                float startY = 680;
-                float startX = 50;
-                float tableWidth = 500;
-                float rowHeight = 25;
-
-                String formattedTimestamp = event.timestamp().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
-
-                String[] headers = {"Field", "Value"};
-                String[][] data = {
-                        {"Source Account", event.senderAccountIban()},
-                        {"Source Owner", event.senderAccountOwnerName()},
-                        {"Target Account", event.receiverAccountIban()},
-                        {"Target Owner", event.receiverAccountOwnerName()},
-                        {"Amount", "$" + event.amount()},
-                        {"Description", event.description()},
-                        {"Timestamp", formattedTimestamp}
-                };
-
                 contentStream.setFont(font, 12);
-                drawTable(contentStream, startX, startY, tableWidth, rowHeight, headers, data);
+                drawTableSkeleton(contentStream);
 
                 contentStream.setFont(font, 10);
                 contentStream.beginText();
@@ -71,40 +329,53 @@ public class PDFGenerator {
             }
 
             document.save(out);
-            return new ByteArrayInputStream(out.toByteArray());
+            return out.toByteArray();
 
-        } catch (Exception e) {
-            throw new CustomException("Error while creating PDF: " + e.getMessage());
+        } catch (IOException e) {
+            throw new IllegalStateException("Error while building the receipt template", e);
         }
     }
 
-    private static void drawTable(PDPageContentStream contentStream, float x, float y, float width, float rowHeight, String[] headers, String[][] data) throws Exception {
-        float colWidth = width / headers.length;
-
+    private static void drawTableSkeleton(PDPageContentStream contentStream) throws IOException {
         contentStream.setLineWidth(0.5f);
-        contentStream.addRect(x, y - rowHeight, colWidth, rowHeight);
-        contentStream.addRect(x + colWidth, y - rowHeight, colWidth, rowHeight);
+        contentStream.addRect(TABLE_X, TABLE_Y - ROW_HEIGHT, COLUMN_WIDTH, ROW_HEIGHT);
+        contentStream.addRect(TABLE_X + COLUMN_WIDTH, TABLE_Y - ROW_HEIGHT, COLUMN_WIDTH, ROW_HEIGHT);
         contentStream.stroke();
 
         contentStream.beginText();
-        contentStream.newLineAtOffset(x + 5, y - 18);
-        contentStream.showText(headers[0]);
-        contentStream.newLineAtOffset(colWidth, 0);
-        contentStream.showText(headers[1]);
+        contentStream.newLineAtOffset(TABLE_X + 5, TABLE_Y - 18);
+        contentStream.showText("Field");
+        contentStream.newLineAtOffset(COLUMN_WIDTH, 0);
+        contentStream.showText("Value");
         contentStream.endText();
 
-        for (int row = 0; row < data.length; row++) {
-            for (int col = 0; col < data[row].length; col++) {
-                contentStream.addRect(x + (col * colWidth), y - (row + 1) * rowHeight, colWidth, rowHeight);
-            }
+        for (int row = 0; row < ROW_LABELS.length; row++) {
+            float rowY = TABLE_Y - (row + 1) * ROW_HEIGHT;
+            contentStream.addRect(TABLE_X, rowY, COLUMN_WIDTH, ROW_HEIGHT);
+            contentStream.addRect(TABLE_X + COLUMN_WIDTH, rowY, COLUMN_WIDTH, ROW_HEIGHT);
             contentStream.stroke();
 
             contentStream.beginText();
-            contentStream.newLineAtOffset(x + 5, y - (row + 1) * rowHeight - 18);
-            contentStream.showText(data[row][0]);
-            contentStream.newLineAtOffset(colWidth, 0);
-            contentStream.showText(data[row][1]);
+            contentStream.newLineAtOffset(TABLE_X + 5, rowY - 18);
+            contentStream.showText(ROW_LABELS[row]);
             contentStream.endText();
         }
     }
+
+    private static byte[] readFont() {
+        try (InputStream fontStream = new ClassPathResource("fonts/Arial.ttf").getInputStream()) {
+            return fontStream.readAllBytes();
+        } catch (IOException e) {
+            throw new IllegalStateException("Error while reading fonts/Arial.ttf", e);
+        }
+    }
+
+    private static TrueTypeFont parseFont() {
+        try {
+            return new TTFParser().parse(new RandomAccessReadBuffer(FONT_BYTES));
+        } catch (IOException e) {
+            throw new IllegalStateException("Error while parsing fonts/Arial.ttf", e);
+        }
+    }
+
 }
@@ -0,0 +1,42 @@
+package com.microbank.notification.config;
+
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.lang.NonNull;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtGrantedAuthoritiesConverter;
+import org.springframework.util.ObjectUtils;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class KeycloakRoleConverter implements Converter<Jwt, Collection<GrantedAuthority>> {
+
+    @Override
+    public Collection<GrantedAuthority> convert(@NonNull Jwt jwt) {
+        Collection<GrantedAuthority> defaultAuthorities = new JwtGrantedAuthoritiesConverter().convert(jwt);
+
+        List<String> realmRoles = extractRealmRoles(jwt);
+
+        return Stream.concat(
+                        defaultAuthorities.stream(),
+                        realmRoles.stream()
+                                .map(role -> new SimpleGrantedAuthority("ROLE_" + role.toUpperCase()))
+                )
+                .collect(Collectors.toSet());
+    }
+
+    private List<String> extractRealmRoles(Jwt jwt) {
+        Map<String, Object> realmAccess = jwt.getClaim("realm_access");
+
+        if (realmAccess == null || ObjectUtils.isEmpty(realmAccess.get("roles"))) {
+            return List.of();
+        }
+
+        return (List<String>) realmAccess.get("roles");
+    }
+}
\ No newline at end of file
@@ -1,6 +1,13 @@
 package com.microbank.notification.config;
 
+import org.springframework.amqp.core.Binding;
+import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.FanoutExchange;
 import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.amqp.SimpleRabbitListenerContainerFactoryConfigurer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -17,9 +24,35 @@ public class RabbitMQConfig {
         return new Queue("password-recovery-queue", true);
     }
 
+    @Bean
+    public FanoutExchange transactionExchange() {
+        return new FanoutExchange("transaction-exchange", true, false);
+    }
+
     @Bean
     public Queue transactionQueue() {
-        return new Queue("transaction-queue", true);
+        return new Queue("notification-transaction-queue", true);
+    }
+
+    @Bean
+    public Binding transactionBinding() {
+        return BindingBuilder.bind(transactionQueue()).to(transactionExchange());
+    }
+
+    @Bean
+    public SimpleRabbitListenerContainerFactory transactionListenerContainerFactory(
+            SimpleRabbitListenerContainerFactoryConfigurer configurer,
+            ConnectionFactory connectionFactory,
+            @Value("${notification.transaction-listener.concurrency:1}") int concurrency,
+            @Value("${notification.transaction-listener.max-concurrency:1}") int maxConcurrency,
+            @Value("${notification.transaction-listener.prefetch:10}") int prefetch
+    ) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        configurer.configure(factory, connectionFactory);
+        factory.setConcurrentConsumers(concurrency);
+        factory.setMaxConcurrentConsumers(Math.max(concurrency, maxConcurrency));
+        factory.setPrefetchCount(prefetch);
+        return factory;
     }
 
 }
@@ -0,0 +1,45 @@
+package com.microbank.notification.controller;
+
+import com.microbank.notification.dto.response.DigestPreferenceResponse;
+import com.microbank.notification.exceptions.UnauthorizedException;
+import com.microbank.notification.service.DigestService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/v1/notifications/digest")
+public class DigestPreferenceController {
+
+    private final DigestService digestService;
+
+    public DigestPreferenceController(DigestService digestService) {
+        this.digestService = digestService;
+    }
+
+    @GetMapping("/me")
+    public ResponseEntity<DigestPreferenceResponse> getPreference(@AuthenticationPrincipal Jwt jwt) {
+        return ResponseEntity.ok(digestService.getPreference(currentEmail(jwt)));
+    }
+
+    @PutMapping("/me")
+    public ResponseEntity<DigestPreferenceResponse> subscribe(@AuthenticationPrincipal Jwt jwt) {
+        return ResponseEntity.ok(digestService.subscribe(currentEmail(jwt)));
+    }
+
+    @DeleteMapping("/me")
+    public ResponseEntity<DigestPreferenceResponse> unsubscribe(@AuthenticationPrincipal Jwt jwt) {
+        return ResponseEntity.ok(digestService.unsubscribe(currentEmail(jwt)));
+    }
+
+    // the address always comes from the token, so users can only change their own preference
+    private static String currentEmail(Jwt jwt) {
+        String email = jwt == null ? null : jwt.getClaimAsString("email");
+        if (email == null || email.isBlank()) {
+            throw new UnauthorizedException("The access token does not carry an email address.");
+        }
+        return email;
+    }
+
+}
@@ -0,0 +1,11 @@
+package com.microbank.notification.dto;
+
+public record TransactionDigestLine(
+        String timestamp,
+        String direction,
+        String counterpartyName,
+        String counterpartyIban,
+        String amount,
+        String description
+) {
+}
@@ -0,0 +1,10 @@
+package com.microbank.notification.dto.response;
+
+import java.time.Duration;
+
+public record DigestPreferenceResponse(
+        String email,
+        boolean digestEnabled,
+        Duration window
+) {
+}
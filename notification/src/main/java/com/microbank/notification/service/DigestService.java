@@ -0,0 +1,20 @@
+package com.microbank.notification.service;
+
+import com.microbank.notification.dto.response.DigestPreferenceResponse;
+import com.microbank.notification.event.TransactionEvent;
+
+import java.util.concurrent.CompletableFuture;
+
+public interface DigestService {
+
+    // mails recipients without a digest right away and buffers the event for those with one
+    CompletableFuture<Void> handleTransactionEvent(TransactionEvent event);
+
+    // sends every digest whose window has elapsed
+    void flushDueDigests();
+
+    DigestPreferenceResponse getPreference(String email);
+    DigestPreferenceResponse subscribe(String email);
+    DigestPreferenceResponse unsubscribe(String email);
+
+}
@@ -1,10 +1,14 @@
 package com.microbank.notification.service;
 
+import com.microbank.notification.dto.TransactionDigestLine;
 import jakarta.mail.MessagingException;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 public interface MailService {
 
@@ -15,8 +19,9 @@ public interface MailService {
             String activationCode
     ) throws MessagingException;
 
-    void sendTransactionMail(
-            String to,
+    // renders the mail once, sends one copy per recipient and completes once the SMTP server accepted all of them
+    CompletableFuture<Void> sendTransactionMail(
+            Collection<String> recipients,
             UUID transactionId,
             String senderName,
             String receiverName,
@@ -27,6 +32,16 @@ public interface MailService {
             LocalDateTime timestamp
     ) throws MessagingException;
 
+    // one summary mail for every transaction of the recipient within the digest window
+    CompletableFuture<Void> sendTransactionDigestMail(
+            String to,
+            LocalDateTime windowStart,
+            LocalDateTime windowEnd,
+            List<TransactionDigestLine> lines,
+            BigDecimal totalSent,
+            BigDecimal totalReceived
+    ) throws MessagingException;
+
     void sendPasswordRecoveryMail(
             String to,
             String passwordRecoveryCode
@@ -0,0 +1,230 @@
+package com.microbank.notification.service.impl;
+
+import com.microbank.notification.dto.TransactionDigestLine;
+import com.microbank.notification.dto.response.DigestPreferenceResponse;
+import com.microbank.notification.event.TransactionEvent;
+import com.microbank.notification.service.DigestService;
+import com.microbank.notification.service.MailService;
+import com.microbank.notification.service.utils.DigestPreferenceStore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Coalesces transaction mails for recipients that opted into digests.
+ * Events are buffered per address and summarized in a single mail once the window has elapsed
+ * or the buffer reaches its size limit. Buffered events live in memory only and are flushed on shutdown.
+ */
+@Service
+public class DigestServiceImpl implements DigestService {
+
+    private static final Logger log = LoggerFactory.getLogger(DigestServiceImpl.class);
+
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final MailService mailService;
+    private final DigestPreferenceStore digestPreferenceStore;
+
+    private final Map<String, DigestBuffer> buffers = new ConcurrentHashMap<>();
+    private final AtomicInteger bufferedEvents = new AtomicInteger();
+
+    private final Counter bufferedCounter;
+    private final Counter sentCounter;
+    private final Counter failedCounter;
+
+    @Value("${notification.digest.enabled:false}")
+    private boolean enabled;
+
+    @Value("${notification.digest.window:15m}")
+    private Duration window;
+
+    @Value("${notification.digest.max-events:200}")
+    private int maxEvents;
+
+    public DigestServiceImpl(MailService mailService, DigestPreferenceStore digestPreferenceStore, MeterRegistry meterRegistry) {
+        this.mailService = mailService;
+        this.digestPreferenceStore = digestPreferenceStore;
+
+        this.bufferedCounter = Counter.builder("notification.digest.buffered")
+                .description("Transaction mails folded into a digest instead of being sent")
+                .register(meterRegistry);
+        this.sentCounter = Counter.builder("notification.digest.sent")
+                .description("Digest mails handed to the SMTP server")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("notification.digest.failed")
+                .description("Digest mails that could not be sent and were buffered again")
+                .register(meterRegistry);
+        Gauge.builder("notification.digest.pending", bufferedEvents, AtomicInteger::get)
+                .description("Transactions waiting in a digest buffer")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public CompletableFuture<Void> handleTransactionEvent(TransactionEvent event) {
+        List<String> immediate = new ArrayList<>(2);
+        for (String recipient : List.of(event.senderAccountEmail(), event.receiverAccountEmail())) {
+            if (enabled && digestPreferenceStore.isSubscribed(recipient)) {
+                buffer(recipient, List.of(event), true);
+                bufferedCounter.increment();
+            } else {
+                immediate.add(recipient);
+            }
+        }
+
+        if (immediate.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        try {
+            return mailService.sendTransactionMail(
+                    immediate,
+                    event.transactionId(),
+                    event.senderAccountOwnerName(),
+                    event.receiverAccountOwnerName(),
+                    event.senderAccountIban(),
+                    event.receiverAccountIban(),
+                    event.amount(),
+                    event.description(),
+                    event.timestamp()
+            );
+        } catch (MessagingException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${notification.digest.flush-interval:30s}")
+    public void flushDueDigests() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(window);
+        for (Map.Entry<String, DigestBuffer> entry : buffers.entrySet()) {
+            if (entry.getValue().openedAt.isBefore(cutoff)) {
+                flush(entry.getKey());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void flushAll() {
+        for (String recipient : List.copyOf(buffers.keySet())) {
+            flush(recipient);
+        }
+    }
+
+    @Override
+    public DigestPreferenceResponse getPreference(String email) {
+        return new DigestPreferenceResponse(email, digestPreferenceStore.isSubscribed(email), window);
+    }
+
+    @Override
+    public DigestPreferenceResponse subscribe(String email) {
+        digestPreferenceStore.subscribe(email);
+        return getPreference(email);
+    }
+
+    @Override
+    public DigestPreferenceResponse unsubscribe(String email) {
+        digestPreferenceStore.unsubscribe(email);
+        // whatever was already collected still goes out instead of being dropped
+        flush(key(email));
+        return getPreference(email);
+    }
+
+    private void buffer(String recipient, List<TransactionEvent> events, boolean flushWhenFull) {
+        String key = key(recipient);
+        DigestBuffer buffer = buffers.compute(key, (ignored, existing) -> {
+            DigestBuffer target = existing != null ? existing : new DigestBuffer(recipient, LocalDateTime.now());
+            target.events.addAll(events);
+            return target;
+        });
+        bufferedEvents.addAndGet(events.size());
+
+        if (flushWhenFull && buffer.events.size() >= maxEvents) {
+            flush(key);
+        }
+    }
+
+    private void flush(String key) {
+        // removal hands the buffer to this thread alone, new events start a fresh buffer meanwhile
+        DigestBuffer buffer = buffers.remove(key);
+        if (buffer == null) {
+            return;
+        }
+        bufferedEvents.addAndGet(-buffer.events.size());
+
+        List<TransactionDigestLine> lines = new ArrayList<>(buffer.events.size());
+        BigDecimal totalSent = BigDecimal.ZERO;
+        BigDecimal totalReceived = BigDecimal.ZERO;
+        for (TransactionEvent event : buffer.events) {
+            boolean outgoing = buffer.recipient.equalsIgnoreCase(event.senderAccountEmail());
+            if (outgoing) {
+                totalSent = totalSent.add(event.amount());
+            } else {
+                totalReceived = totalReceived.add(event.amount());
+            }
+            lines.add(new TransactionDigestLine(
+                    event.timestamp().format(TIMESTAMP_FORMAT),
+                    outgoing ? "Sent" : "Received",
+                    outgoing ? event.receiverAccountOwnerName() : event.senderAccountOwnerName(),
+                    outgoing ? event.receiverAccountIban() : event.senderAccountIban(),
+                    event.amount().toPlainString(),
+                    event.description()
+            ));
+        }
+
+        CompletableFuture<Void> sent;
+        try {
+            sent = mailService.sendTransactionDigestMail(
+                    buffer.recipient, buffer.openedAt, LocalDateTime.now(), lines, totalSent, totalReceived);
+        } catch (MessagingException e) {
+            sent = CompletableFuture.failedFuture(e);
+        }
+
+        sent.whenComplete((ignored, failure) -> {
+            if (failure == null) {
+                sentCounter.increment();
+                return;
+            }
+            failedCounter.increment();
+            log.warn("Failed to send a digest of {} transactions, keeping them for the next window: {}",
+                    buffer.events.size(), failure.getMessage());
+            // not flushed early even when full, the retry waits for the next window
+            buffer(buffer.recipient, buffer.events, false);
+        });
+    }
+
+    private static String key(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static final class DigestBuffer {
+
+        private final String recipient;
+        private final LocalDateTime openedAt;
+        private final List<TransactionEvent> events = new ArrayList<>();
+
+        private DigestBuffer(String recipient, LocalDateTime openedAt) {
+            this.recipient = recipient;
+            this.openedAt = openedAt;
+        }
+    }
+
+}
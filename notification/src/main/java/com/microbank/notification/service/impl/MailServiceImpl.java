@@ -1,57 +1,60 @@
 package com.microbank.notification.service.impl;
 
+import com.microbank.notification.dto.TransactionDigestLine;
 import com.microbank.notification.service.MailService;
+import com.microbank.notification.service.utils.MailDispatcher;
+import com.microbank.notification.service.utils.MailTemplateRenderer;
 import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
-import org.thymeleaf.TemplateEngine;
-import org.thymeleaf.context.Context;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @Service
 public class MailServiceImpl implements MailService {
 
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
     private final JavaMailSender mailSender;
-    private final TemplateEngine templateEngine;
+    private final MailTemplateRenderer mailTemplateRenderer;
+    private final MailDispatcher mailDispatcher;
 
     @Value("${sender-email}")
     private String senderEmail;
 
-    public MailServiceImpl(JavaMailSender mailSender, TemplateEngine templateEngine) {
+    public MailServiceImpl(JavaMailSender mailSender, MailTemplateRenderer mailTemplateRenderer, MailDispatcher mailDispatcher) {
         this.mailSender = mailSender;
-        this.templateEngine = templateEngine;
+        this.mailTemplateRenderer = mailTemplateRenderer;
+        this.mailDispatcher = mailDispatcher;
     }
 
     @Override
     public void sendActivationMail(String to, String firstName, String lastName, String activationCode) throws MessagingException {
-        MimeMessage message = mailSender.createMimeMessage();
-        MimeMessageHelper helper = new MimeMessageHelper(message, true);
-
-        Context context = new Context();
-        context.setVariable("firstName", firstName);
-        context.setVariable("lastName", lastName);
-        context.setVariable("activationCode", activationCode);
+        Map<String, Object> variables = new HashMap<>();
+        variables.put("firstName", firstName);
+        variables.put("lastName", lastName);
+        variables.put("activationCode", activationCode);
 
-        String content = templateEngine.process("activation-email", context);
-
-        helper.setFrom(senderEmail);
-        helper.setTo(to);
-        helper.setSubject("Account Activation Code");
-        helper.setText(content, true);
+        String content = mailTemplateRenderer.render(MailTemplateRenderer.ACTIVATION_TEMPLATE, variables);
 
-        mailSender.send(message);
+        send(buildMessage(to, "Account Activation Code", content));
     }
 
     @Override
-    public void sendTransactionMail(
-            String to,
+    public CompletableFuture<Void> sendTransactionMail(
+            Collection<String> recipients,
             UUID transactionId,
             String senderName,
             String receiverName,
@@ -61,45 +64,77 @@ public class MailServiceImpl implements MailService {
             String description,
             LocalDateTime timestamp
     ) throws MessagingException {
-        MimeMessage message = mailSender.createMimeMessage();
-        MimeMessageHelper helper = new MimeMessageHelper(message, true);
-
-        Context context = new Context();
-        context.setVariable("transactionId", transactionId.toString());
-        context.setVariable("senderName", senderName);
-        context.setVariable("receiverName", receiverName);
-        context.setVariable("senderIban", senderIban);
-        context.setVariable("receiverIban", receiverIban);
-        context.setVariable("amount", amount.toPlainString());
-        context.setVariable("description", description);
-        context.setVariable("timestamp", timestamp.format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")));
+        Map<String, Object> variables = new HashMap<>();
+        variables.put("transactionId", transactionId.toString());
+        variables.put("senderName", senderName);
+        variables.put("receiverName", receiverName);
+        variables.put("senderIban", senderIban);
+        variables.put("receiverIban", receiverIban);
+        variables.put("amount", amount.toPlainString());
+        variables.put("description", description);
+        variables.put("timestamp", timestamp.format(TIMESTAMP_FORMAT));
+
+        // the body does not depend on the recipient, so it is rendered once for everyone
+        String content = mailTemplateRenderer.render(MailTemplateRenderer.TRANSACTION_TEMPLATE, variables);
+
+        CompletableFuture<?>[] sent = new CompletableFuture<?>[recipients.size()];
+        int i = 0;
+        for (String to : recipients) {
+            sent[i++] = mailDispatcher.submit(buildMessage(to, "Transaction Notification", content));
+        }
+        return CompletableFuture.allOf(sent);
+    }
 
-        String content = templateEngine.process("transaction-email", context);
+    @Override
+    public CompletableFuture<Void> sendTransactionDigestMail(
+            String to,
+            LocalDateTime windowStart,
+            LocalDateTime windowEnd,
+            List<TransactionDigestLine> lines,
+            BigDecimal totalSent,
+            BigDecimal totalReceived
+    ) throws MessagingException {
+        Map<String, Object> variables = new HashMap<>();
+        variables.put("transactionCount", lines.size());
+        variables.put("windowStart", windowStart.format(TIMESTAMP_FORMAT));
+        variables.put("windowEnd", windowEnd.format(TIMESTAMP_FORMAT));
+        variables.put("lines", lines);
+        variables.put("totalSent", totalSent.toPlainString());
+        variables.put("totalReceived", totalReceived.toPlainString());
 
-        helper.setFrom(senderEmail);
-        helper.setTo(to);
-        helper.setSubject("Transaction Notification");
-        helper.setText(content, true);
+        String content = mailTemplateRenderer.render(MailTemplateRenderer.TRANSACTION_DIGEST_TEMPLATE, variables);
 
-        mailSender.send(message);
+        return mailDispatcher.submit(buildMessage(to, "Transaction Summary", content));
     }
 
     @Override
     public void sendPasswordRecoveryMail(String to, String passwordRecoveryCode) throws MessagingException {
-        MimeMessage message = mailSender.createMimeMessage();
-        MimeMessageHelper helper = new MimeMessageHelper(message, true);
+        Map<String, Object> variables = new HashMap<>();
+        variables.put("passwordRecoveryCode", passwordRecoveryCode);
 
-        Context context = new Context();
-        context.setVariable("passwordRecoveryCode", passwordRecoveryCode);
+        String content = mailTemplateRenderer.render(MailTemplateRenderer.PASSWORD_RECOVERY_TEMPLATE, variables);
 
-        String content = templateEngine.process("password-recovery-email", context);
+        send(buildMessage(to, "Password Recovery Code", content));
+    }
+
+    private MimeMessage buildMessage(String to, String subject, String content) throws MessagingException {
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, true);
 
         helper.setFrom(senderEmail);
         helper.setTo(to);
-        helper.setSubject("Password Recovery Code");
+        helper.setSubject(subject);
         helper.setText(content, true);
 
-        mailSender.send(message);
+        return message;
+    }
+
+    private void send(MimeMessage message) throws MessagingException {
+        try {
+            mailDispatcher.submit(message).join();
+        } catch (CompletionException e) {
+            throw new MessagingException("Error while sending mail", e.getCause() instanceof Exception cause ? cause : e);
+        }
     }
 
 }
@@ -0,0 +1,85 @@
+package com.microbank.notification.service.utils;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Addresses that opted into digest mails, kept in memory and mirrored to a plain text file
+ * with one address per line. The file is rewritten through a temporary copy, so a crash never leaves it half written.
+ */
+@Component
+public class DigestPreferenceStore {
+
+    private static final Logger log = LoggerFactory.getLogger(DigestPreferenceStore.class);
+
+    private final Set<String> subscribers = ConcurrentHashMap.newKeySet();
+    private final Path storePath;
+
+    public DigestPreferenceStore(@Value("${notification.digest.store-path:data/digest-subscribers.txt}") String storePath) {
+        this.storePath = Path.of(storePath);
+    }
+
+    @PostConstruct
+    public void load() {
+        if (!Files.exists(storePath)) {
+            return;
+        }
+        try {
+            for (String line : Files.readAllLines(storePath, StandardCharsets.UTF_8)) {
+                if (!line.isBlank()) {
+                    subscribers.add(normalize(line));
+                }
+            }
+            log.info("Loaded {} digest subscribers from {}", subscribers.size(), storePath);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error while reading " + storePath, e);
+        }
+    }
+
+    public boolean isSubscribed(String email) {
+        return email != null && subscribers.contains(normalize(email));
+    }
+
+    public void subscribe(String email) {
+        if (subscribers.add(normalize(email))) {
+            persist();
+        }
+    }
+
+    public void unsubscribe(String email) {
+        if (subscribers.remove(normalize(email))) {
+            persist();
+        }
+    }
+
+    private synchronized void persist() {
+        try {
+            Path parent = storePath.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            Path temp = Files.createTempFile(parent, "digest-subscribers", ".tmp");
+            Files.write(temp, List.copyOf(subscribers), StandardCharsets.UTF_8);
+            Files.move(temp, storePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error while writing " + storePath, e);
+        }
+    }
+
+    private static String normalize(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+
+}
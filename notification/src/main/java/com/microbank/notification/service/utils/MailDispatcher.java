@@ -0,0 +1,192 @@
+package com.microbank.notification.service.utils;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends mail over a fixed set of persistent SMTP connections.
+ * Messages wait in a bounded queue; each worker owns one connection, drains up to a batch of messages
+ * per wake-up and keeps the session open until it has been idle for a while.
+ */
+@Component
+public class MailDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(MailDispatcher.class);
+
+    private final JavaMailSenderImpl mailSender;
+    private final BlockingQueue<PendingMail> queue;
+    private final List<Thread> workers = new ArrayList<>();
+
+    private final Timer queueWaitTimer;
+    private final Timer sendTimer;
+    private final Counter failedCounter;
+
+    private volatile boolean running = true;
+
+    @Value("${notification.mail.connections:4}")
+    private int connections;
+
+    @Value("${notification.mail.batch-size:20}")
+    private int batchSize;
+
+    @Value("${notification.mail.enqueue-timeout:10s}")
+    private Duration enqueueTimeout;
+
+    @Value("${notification.mail.idle-timeout:30s}")
+    private Duration idleTimeout;
+
+    public MailDispatcher(
+            JavaMailSenderImpl mailSender,
+            MeterRegistry meterRegistry,
+            @Value("${notification.mail.queue-capacity:1000}") int queueCapacity
+    ) {
+        this.mailSender = mailSender;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+
+        Gauge.builder("notification.mail.queue.depth", queue, BlockingQueue::size)
+                .description("Mails waiting for a free SMTP connection")
+                .register(meterRegistry);
+        this.queueWaitTimer = Timer.builder("notification.mail.queue.wait")
+                .description("Time a mail spent in the queue before a connection picked it up")
+                .register(meterRegistry);
+        this.sendTimer = Timer.builder("notification.mail.send")
+                .description("Time spent handing a single mail to the SMTP server")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("notification.mail.failed")
+                .description("Mails the SMTP server did not accept")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        for (int i = 0; i < Math.max(1, connections); i++) {
+            Thread worker = new Thread(this::work, "mail-dispatcher-" + i);
+            worker.setDaemon(true);
+            worker.start();
+            workers.add(worker);
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        for (Thread worker : workers) {
+            worker.join(enqueueTimeout.toMillis());
+        }
+    }
+
+    public CompletableFuture<Void> submit(MimeMessage message) {
+        PendingMail mail = new PendingMail(message, System.nanoTime(), new CompletableFuture<>());
+        try {
+            // a full queue pushes back on the listener instead of piling mail up on the heap
+            if (!queue.offer(mail, enqueueTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                mail.result().completeExceptionally(new MailSendException("Mail queue is full."));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            mail.result().completeExceptionally(new MailSendException("Interrupted while queueing mail."));
+        }
+        return mail.result();
+    }
+
+    private void work() {
+        Transport transport = null;
+        List<PendingMail> batch = new ArrayList<>(batchSize);
+
+        try {
+            // keep draining after shutdown starts so nothing already accepted is dropped
+            while (running || !queue.isEmpty()) {
+                PendingMail first = queue.poll(idleTimeout.toMillis(), TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    transport = close(transport);
+                    continue;
+                }
+
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+
+                for (PendingMail mail : batch) {
+                    transport = send(transport, mail);
+                }
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            close(transport);
+        }
+    }
+
+    private Transport send(Transport transport, PendingMail mail) {
+        queueWaitTimer.record(System.nanoTime() - mail.enqueuedAt(), TimeUnit.NANOSECONDS);
+        long start = System.nanoTime();
+
+        // one retry on a fresh connection covers sessions the server closed while we were idle
+        for (int attempt = 1; ; attempt++) {
+            try {
+                transport = connected(transport);
+                MimeMessage message = mail.message();
+                message.saveChanges();
+                transport.sendMessage(message, message.getAllRecipients());
+                sendTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                mail.result().complete(null);
+                return transport;
+            } catch (MessagingException | RuntimeException e) {
+                transport = close(transport);
+                // rejected recipients will not go through on another connection either
+                if (attempt >= 2 || e instanceof SendFailedException) {
+                    failedCounter.increment();
+                    log.warn("Failed to send mail: {}", e.getMessage());
+                    mail.result().completeExceptionally(new MailSendException("Failed to send mail", e));
+                    return null;
+                }
+            }
+        }
+    }
+
+    private Transport connected(Transport transport) throws MessagingException {
+        if (transport != null && transport.isConnected()) {
+            return transport;
+        }
+        Transport fresh = mailSender.getSession().getTransport(mailSender.getProtocol());
+        fresh.connect(mailSender.getHost(), mailSender.getPort(), mailSender.getUsername(), mailSender.getPassword());
+        return fresh;
+    }
+
+    private Transport close(Transport transport) {
+        if (transport != null) {
+            try {
+                transport.close();
+            } catch (MessagingException e) {
+                log.debug("Error while closing SMTP connection: {}", e.getMessage());
+            }
+        }
+        return null;
+    }
+
+    private record PendingMail(MimeMessage message, long enqueuedAt, CompletableFuture<Void> result) {
+    }
+
+}
@@ -0,0 +1,73 @@
+package com.microbank.notification.service.utils;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.context.Context;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Renders the mail templates and times each render per template.
+ * Parsed templates stay in the engine's template cache, and the static markup around the
+ * expressions is kept there as pre-parsed text, so a render only evaluates the variables.
+ */
+@Component
+public class MailTemplateRenderer {
+
+    private static final Logger log = LoggerFactory.getLogger(MailTemplateRenderer.class);
+
+    public static final String ACTIVATION_TEMPLATE = "activation-email";
+    public static final String TRANSACTION_TEMPLATE = "transaction-email";
+    public static final String TRANSACTION_DIGEST_TEMPLATE = "transaction-digest-email";
+    public static final String PASSWORD_RECOVERY_TEMPLATE = "password-recovery-email";
+
+    private static final List<String> TEMPLATES = List.of(
+            ACTIVATION_TEMPLATE,
+            TRANSACTION_TEMPLATE,
+            TRANSACTION_DIGEST_TEMPLATE,
+            PASSWORD_RECOVERY_TEMPLATE
+    );
+
+    private final TemplateEngine templateEngine;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Timer> renderTimers = new ConcurrentHashMap<>();
+
+    public MailTemplateRenderer(TemplateEngine templateEngine, MeterRegistry meterRegistry) {
+        this.templateEngine = templateEngine;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public String render(String template, Map<String, Object> variables) {
+        Context context = new Context(Locale.ENGLISH, variables);
+        return renderTimer(template).record(() -> templateEngine.process(template, context));
+    }
+
+    // parse every template before the first message arrives, so a burst does not start with cache misses
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        for (String template : TEMPLATES) {
+            try {
+                templateEngine.process(template, new Context(Locale.ENGLISH));
+            } catch (RuntimeException e) {
+                log.warn("Could not pre-load mail template {}: {}", template, e.getMessage());
+            }
+        }
+    }
+
+    private Timer renderTimer(String template) {
+        return renderTimers.computeIfAbsent(template, name -> Timer.builder("notification.mail.render")
+                .description("Time spent rendering a mail template")
+                .tag("template", name)
+                .register(meterRegistry));
+    }
+
+}
@@ -0,0 +1,175 @@
+package com.microbank.notification.service.impl;
+
+import com.microbank.notification.dto.TransactionDigestLine;
+import com.microbank.notification.event.TransactionEvent;
+import com.microbank.notification.service.MailService;
+import com.microbank.notification.service.utils.DigestPreferenceStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DigestServiceImplTest {
+
+    private static final String ALICE = "alice@microbank.co";
+    private static final String BOB = "bob@microbank.co";
+
+    @TempDir
+    Path tempDir;
+
+    private MailService mailService;
+    private DigestPreferenceStore digestPreferenceStore;
+    private DigestServiceImpl digestService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        mailService = mock(MailService.class);
+        when(mailService.sendTransactionMail(anyCollection(), any(), any(), any(), any(), any(), any(), any(), any()))
+                .thenReturn(CompletableFuture.completedFuture(null));
+        when(mailService.sendTransactionDigestMail(anyString(), any(), any(), anyList(), any(), any()))
+                .thenReturn(CompletableFuture.completedFuture(null));
+
+        digestPreferenceStore = new DigestPreferenceStore(tempDir.resolve("subscribers.txt").toString());
+        digestService = new DigestServiceImpl(mailService, digestPreferenceStore, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(digestService, "enabled", true);
+        ReflectionTestUtils.setField(digestService, "window", Duration.ofMinutes(15));
+        ReflectionTestUtils.setField(digestService, "maxEvents", 3);
+    }
+
+    @Test
+    void subscribersAreBufferedWhileOthersAreMailedRightAway() throws Exception {
+        digestPreferenceStore.subscribe(ALICE);
+
+        digestService.handleTransactionEvent(event(ALICE, BOB, "10.00"));
+
+        verify(mailService).sendTransactionMail(eq(List.of(BOB)), any(), any(), any(), any(), any(), any(), any(), any());
+        verify(mailService, never()).sendTransactionDigestMail(anyString(), any(), any(), anyList(), any(), any());
+    }
+
+    @Test
+    void everyoneIsMailedRightAwayWhenDigestsAreDisabled() throws Exception {
+        ReflectionTestUtils.setField(digestService, "enabled", false);
+        digestPreferenceStore.subscribe(ALICE);
+
+        digestService.handleTransactionEvent(event(ALICE, BOB, "10.00"));
+
+        verify(mailService).sendTransactionMail(eq(List.of(ALICE, BOB)), any(), any(), any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void flushSummarizesBufferedTransactionsPerRecipient() throws Exception {
+        digestPreferenceStore.subscribe(ALICE);
+        digestService.handleTransactionEvent(event(ALICE, BOB, "10.00"));
+        digestService.handleTransactionEvent(event(BOB, ALICE, "2.50"));
+
+        digestService.flushAll();
+
+        ArgumentCaptor<List<TransactionDigestLine>> lines = linesCaptor();
+        verify(mailService).sendTransactionDigestMail(
+                eq(ALICE), any(), any(), lines.capture(), eq(new BigDecimal("10.00")), eq(new BigDecimal("2.50")));
+        assertThat(lines.getValue()).extracting(TransactionDigestLine::direction).containsExactly("Sent", "Received");
+        assertThat(lines.getValue()).extracting(TransactionDigestLine::counterpartyName).containsExactly("Bob", "Bob");
+    }
+
+    @Test
+    void dueDigestsWaitForTheirWindow() throws Exception {
+        digestPreferenceStore.subscribe(ALICE);
+        digestService.handleTransactionEvent(event(ALICE, BOB, "10.00"));
+
+        digestService.flushDueDigests();
+        verify(mailService, never()).sendTransactionDigestMail(anyString(), any(), any(), anyList(), any(), any());
+
+        ReflectionTestUtils.setField(digestService, "window", Duration.ofMinutes(-1));
+        digestService.flushDueDigests();
+        verify(mailService).sendTransactionDigestMail(eq(ALICE), any(), any(), anyList(), any(), any());
+    }
+
+    @Test
+    void fullBufferIsSentWithoutWaitingForTheWindow() throws Exception {
+        digestPreferenceStore.subscribe(ALICE);
+
+        for (int i = 0; i < 3; i++) {
+            digestService.handleTransactionEvent(event(ALICE, BOB, "1.00"));
+        }
+
+        ArgumentCaptor<List<TransactionDigestLine>> lines = linesCaptor();
+        verify(mailService).sendTransactionDigestMail(eq(ALICE), any(), any(), lines.capture(), any(), any());
+        assertThat(lines.getValue()).hasSize(3);
+    }
+
+    @Test
+    void failedDigestIsBufferedAgainAndSentWithTheNextOne() throws Exception {
+        digestPreferenceStore.subscribe(ALICE);
+        when(mailService.sendTransactionDigestMail(anyString(), any(), any(), anyList(), any(), any()))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("SMTP down")))
+                .thenReturn(CompletableFuture.completedFuture(null));
+
+        digestService.handleTransactionEvent(event(ALICE, BOB, "1.00"));
+        digestService.handleTransactionEvent(event(ALICE, BOB, "2.00"));
+        digestService.flushAll();
+
+        // the failed events are back in the buffer, so this one fills it and sends all three
+        digestService.handleTransactionEvent(event(ALICE, BOB, "3.00"));
+        digestService.flushAll();
+
+        ArgumentCaptor<List<TransactionDigestLine>> lines = linesCaptor();
+        verify(mailService, times(2)).sendTransactionDigestMail(eq(ALICE), any(), any(), lines.capture(), any(), any());
+        assertThat(lines.getAllValues().get(1)).extracting(TransactionDigestLine::amount)
+                .containsExactlyInAnyOrder("1.00", "2.00", "3.00");
+    }
+
+    @Test
+    void unsubscribingSendsWhatWasAlreadyCollected() throws Exception {
+        digestPreferenceStore.subscribe(ALICE);
+        digestService.handleTransactionEvent(event(ALICE, BOB, "10.00"));
+
+        assertThat(digestService.unsubscribe(ALICE.toUpperCase()).digestEnabled()).isFalse();
+
+        verify(mailService).sendTransactionDigestMail(eq(ALICE), any(), any(), anyList(), any(), any());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ArgumentCaptor<List<TransactionDigestLine>> linesCaptor() {
+        return ArgumentCaptor.forClass(List.class);
+    }
+
+    private static TransactionEvent event(String senderEmail, String receiverEmail, String amount) {
+        return new TransactionEvent(
+                UUID.randomUUID(),
+                UUID.randomUUID(),
+                UUID.randomUUID(),
+                senderEmail,
+                receiverEmail,
+                "MB00000000000001",
+                "MB00000000000002",
+                senderEmail.equals(ALICE) ? "Alice" : "Bob",
+                receiverEmail.equals(ALICE) ? "Alice" : "Bob",
+                new BigDecimal(amount),
+                "test",
+                LocalDateTime.now()
+        );
+    }
+
+}
@@ -0,0 +1,75 @@
+-- Account history lookup benchmark for transaction_db.
+-- Loads 10M transactions spread over 100k accounts into a scratch schema, then compares
+-- the former derived OR query with the UNION query used by TransactionRepository.
+--
+--   psql -h localhost -p 5434 -U transaction_db -d transaction_db -f benchmark/account-lookup.sql
+
+\timing on
+
+DROP SCHEMA IF EXISTS bench CASCADE;
+CREATE SCHEMA bench;
+SET search_path TO bench;
+
+CREATE TABLE accounts AS
+SELECT gen_random_uuid() AS id, n
+FROM generate_series(1, 100000) AS n;
+
+CREATE TABLE transactions (
+    id                  UUID           NOT NULL PRIMARY KEY,
+    sender_account_id   UUID           NOT NULL,
+    receiver_account_id UUID           NOT NULL,
+    amount              NUMERIC(19, 4) NOT NULL,
+    timestamp           TIMESTAMP(6)   NOT NULL,
+    description         VARCHAR(500)
+);
+
+INSERT INTO transactions
+SELECT gen_random_uuid(),
+       s.id,
+       r.id,
+       round((random() * 1000)::numeric, 2),
+       now() - (random() * interval '730 days'),
+       NULL
+FROM generate_series(1, 10000000) AS g
+JOIN accounts s ON s.n = 1 + (g * 7919) % 100000
+JOIN accounts r ON r.n = 1 + (g * 104729) % 100000;
+
+ANALYZE transactions;
+
+-- Sample account with a typical history
+SELECT id AS account_id FROM accounts WHERE n = 4242 \gset
+
+\echo '--- Before: derived OR query, no indexes'
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM transactions
+WHERE sender_account_id = :'account_id' OR receiver_account_id = :'account_id';
+
+-- Same indexes as V3__transaction_account_indexes.sql
+CREATE INDEX idx_transactions_sender_timestamp
+    ON transactions (sender_account_id, timestamp DESC, id DESC);
+CREATE INDEX idx_transactions_receiver_timestamp
+    ON transactions (receiver_account_id, timestamp DESC, id DESC);
+ANALYZE transactions;
+
+\echo '--- Before: derived OR query, with indexes'
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM transactions
+WHERE sender_account_id = :'account_id' OR receiver_account_id = :'account_id';
+
+\echo '--- After: first page of the UNION query'
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM (
+    (SELECT * FROM transactions
+     WHERE sender_account_id = :'account_id' AND (timestamp, id) < ('9999-12-31 23:59:59', 'ffffffff-ffff-ffff-ffff-ffffffffffff')
+     ORDER BY timestamp DESC, id DESC
+     LIMIT 51)
+    UNION
+    (SELECT * FROM transactions
+     WHERE receiver_account_id = :'account_id' AND (timestamp, id) < ('9999-12-31 23:59:59', 'ffffffff-ffff-ffff-ffff-ffffffffffff')
+     ORDER BY timestamp DESC, id DESC
+     LIMIT 51)
+) t
+ORDER BY t.timestamp DESC, t.id DESC
+LIMIT 51;
+
+DROP SCHEMA bench CASCADE;
@@ -25,17 +25,21 @@ public class SecurityConfig {
                 .csrf(AbstractHttpConfigurer::disable)
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers(HttpMethod.POST, "/api/v1/transactions").hasRole("USER")
+                        .requestMatchers(HttpMethod.POST, "/api/v1/transactions/batch").hasRole("USER")
                         .requestMatchers(HttpMethod.GET,  "/api/v1/transactions/me/{transactionId}").hasRole("USER")
                         .requestMatchers(HttpMethod.GET,  "/api/v1/transactions/me").hasRole("USER")
                         .requestMatchers(HttpMethod.GET,  "/api/v1/transactions/me/accounts/{accountId}").hasRole("USER")
 
                         .requestMatchers(HttpMethod.GET,  "/api/v1/transactions/admin/transactions").hasRole("ADMIN")
+                        .requestMatchers(HttpMethod.GET,  "/api/v1/transactions/admin/transactions/export").hasRole("ADMIN")
                         .requestMatchers(HttpMethod.GET,  "/api/v1/transactions/admin/transactions/{transactionId}").hasRole("ADMIN")
                         .requestMatchers(HttpMethod.GET,  "/api/v1/transactions/admin/accounts/{accountId}/transactions").hasRole("ADMIN")
                         .requestMatchers(HttpMethod.GET,  "/api/v1/transactions/admin/users/{userId}/transactions").hasRole("ADMIN")
 
                         // Feign Permissions
                         .requestMatchers(HttpMethod.PUT,  "/api/v1/accounts/balance").hasRole("USER")
+                        .requestMatchers(HttpMethod.PUT,  "/api/v1/accounts/balance/transfer").hasRole("USER")
+                        .requestMatchers(HttpMethod.PUT,  "/api/v1/accounts/balance/transfer/batch").hasRole("USER")
                         .requestMatchers(HttpMethod.GET,  "/api/v1/accounts/{accountId}").hasRole("USER")
                         .requestMatchers(HttpMethod.GET,  "/api/v1/accounts/minimal/{accountId}").hasRole("USER")
                         .requestMatchers(HttpMethod.GET,  "/api/v1/accounts/iban/{iban}").hasRole("USER")
@@ -1,15 +1,22 @@
 package com.microbank.transaction.controller;
 
+import com.microbank.transaction.dto.request.CreateBatchTransactionRequest;
 import com.microbank.transaction.dto.request.CreateTransactionRequest;
+import com.microbank.transaction.dto.response.BatchTransactionResponse;
+import com.microbank.transaction.dto.response.TransactionPageResponse;
 import com.microbank.transaction.dto.response.TransactionResponse;
 import com.microbank.transaction.response.BaseApiResponse;
+import com.microbank.transaction.service.IdempotencyService;
 import com.microbank.transaction.service.TransactionService;
 import jakarta.validation.Valid;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.List;
+import java.time.LocalDateTime;
 import java.util.UUID;
 
 @RestController
@@ -17,22 +24,44 @@ import java.util.UUID;
 public class TransactionController {
 
     private final TransactionService transactionService;
+    private final IdempotencyService idempotencyService;
 
-    public TransactionController(TransactionService transactionService) {
+    public TransactionController(TransactionService transactionService, IdempotencyService idempotencyService) {
         this.transactionService = transactionService;
+        this.idempotencyService = idempotencyService;
     }
 
     @PostMapping
     @PreAuthorize("hasRole('USER')")
-    public ResponseEntity<BaseApiResponse<TransactionResponse>> createTransaction(@RequestBody @Valid CreateTransactionRequest request) {
-        BaseApiResponse<TransactionResponse> response = transactionService.createTransaction(request);
+    public ResponseEntity<BaseApiResponse<TransactionResponse>> createTransaction(
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            @RequestBody @Valid CreateTransactionRequest request
+    ) {
+        BaseApiResponse<TransactionResponse> response = idempotencyService.execute(
+                idempotencyKey,
+                request,
+                idempotency -> transactionService.createTransaction(request, idempotency)
+        );
+        return ResponseEntity.status(response.getStatus()).body(response);
+    }
+
+    @PostMapping("/batch")
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<BaseApiResponse<BatchTransactionResponse>> createTransactions(
+            @RequestBody @Valid CreateBatchTransactionRequest request
+    ) {
+        BaseApiResponse<BatchTransactionResponse> response = transactionService.createTransactions(request);
         return ResponseEntity.status(response.getStatus()).body(response);
     }
 
     @GetMapping("/me")
     @PreAuthorize("hasRole('USER')")
-    public ResponseEntity<BaseApiResponse<List<TransactionResponse>>> getCurrentUsersAllTransactions() {
-        BaseApiResponse<List<TransactionResponse>> response = transactionService.getCurrentUsersAllTransactions();
+    public ResponseEntity<BaseApiResponse<TransactionPageResponse>> getCurrentUsersAllTransactions(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from
+    ) {
+        BaseApiResponse<TransactionPageResponse> response = transactionService.getCurrentUsersAllTransactions(cursor, limit, from);
         return ResponseEntity.status(response.getStatus()).body(response);
     }
 
@@ -45,18 +74,36 @@ public class TransactionController {
 
     @GetMapping("/me/accounts/{accountId}")
     @PreAuthorize("hasRole('USER')")
-    public ResponseEntity<BaseApiResponse<List<TransactionResponse>>> getCurrentUsersTransactionsByAccountId(@PathVariable UUID accountId) {
-        BaseApiResponse<List<TransactionResponse>> response = transactionService.getCurrentUsersTransactionsByAccountId(accountId);
+    public ResponseEntity<BaseApiResponse<TransactionPageResponse>> getCurrentUsersTransactionsByAccountId(
+            @PathVariable UUID accountId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from
+    ) {
+        BaseApiResponse<TransactionPageResponse> response = transactionService.getCurrentUsersTransactionsByAccountId(accountId, cursor, limit, from);
         return ResponseEntity.status(response.getStatus()).body(response);
     }
 
     @GetMapping("/admin/transactions")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<BaseApiResponse<List<TransactionResponse>>> getAllTransactions() {
-        BaseApiResponse<List<TransactionResponse>> response = transactionService.getAllTransactions();
+    public ResponseEntity<BaseApiResponse<TransactionPageResponse>> getAllTransactions(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from
+    ) {
+        BaseApiResponse<TransactionPageResponse> response = transactionService.getAllTransactions(cursor, limit, from);
         return ResponseEntity.status(response.getStatus()).body(response);
     }
 
+    @GetMapping(value = "/admin/transactions/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportAllTransactions() {
+        StreamingResponseBody body = transactionService::exportAllTransactions;
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
     @GetMapping("/admin/transactions/{transactionId}")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<BaseApiResponse<TransactionResponse>> getTransactionById(@PathVariable UUID transactionId) {
@@ -66,15 +113,25 @@ public class TransactionController {
 
     @GetMapping("/admin/accounts/{accountId}/transactions")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<BaseApiResponse<List<TransactionResponse>>> getTransactionsByAccountId(@PathVariable UUID accountId) {
-        BaseApiResponse<List<TransactionResponse>> response = transactionService.getTransactionsByAccountId(accountId);
+    public ResponseEntity<BaseApiResponse<TransactionPageResponse>> getTransactionsByAccountId(
+            @PathVariable UUID accountId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from
+    ) {
+        BaseApiResponse<TransactionPageResponse> response = transactionService.getTransactionsByAccountId(accountId, cursor, limit, from);
         return ResponseEntity.status(response.getStatus()).body(response);
     }
 
     @GetMapping("/admin/users/{userId}/transactions")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<BaseApiResponse<List<TransactionResponse>>> getTransactionsByUserId(@PathVariable UUID userId) {
-        BaseApiResponse<List<TransactionResponse>> response = transactionService.getTransactionsByUserId(userId);
+    public ResponseEntity<BaseApiResponse<TransactionPageResponse>> getTransactionsByUserId(
+            @PathVariable UUID userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from
+    ) {
+        BaseApiResponse<TransactionPageResponse> response = transactionService.getTransactionsByUserId(userId, cursor, limit, from);
         return ResponseEntity.status(response.getStatus()).body(response);
     }
 
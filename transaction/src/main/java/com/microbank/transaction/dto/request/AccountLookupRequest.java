@@ -0,0 +1,13 @@
+package com.microbank.transaction.dto.request;
+
+import java.util.List;
+import java.util.UUID;
+
+public record AccountLookupRequest(
+
+        List<UUID> ids,
+
+        List<String> ibans
+
+) {
+}
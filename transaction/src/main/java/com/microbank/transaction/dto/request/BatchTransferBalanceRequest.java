@@ -0,0 +1,8 @@
+package com.microbank.transaction.dto.request;
+
+import java.util.List;
+
+public record BatchTransferBalanceRequest(
+        List<TransferBalanceRequest> transfers
+) {
+}
@@ -0,0 +1,12 @@
+package com.microbank.transaction.dto.request;
+
+import jakarta.validation.constraints.NotEmpty;
+
+import java.util.List;
+
+public record CreateBatchTransactionRequest(
+        // items are validated one by one in the service so a bad item fails alone instead of the whole batch
+        @NotEmpty(message = "Transactions cannot be empty")
+        List<CreateTransactionRequest> transactions
+) {
+}
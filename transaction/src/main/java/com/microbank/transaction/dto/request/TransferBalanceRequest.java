@@ -0,0 +1,12 @@
+package com.microbank.transaction.dto.request;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+public record TransferBalanceRequest(
+        UUID senderAccountId,
+        UUID receiverAccountId,
+        String receiverAccountIban,
+        BigDecimal amount
+) {
+}
@@ -0,0 +1,9 @@
+package com.microbank.transaction.dto.response;
+
+public record BatchTransactionItemResponse(
+        int index,
+        boolean success,
+        TransactionResponse transaction,
+        String error
+) {
+}
@@ -0,0 +1,11 @@
+package com.microbank.transaction.dto.response;
+
+import java.util.List;
+
+public record BatchTransactionResponse(
+        int total,
+        int succeeded,
+        int failed,
+        List<BatchTransactionItemResponse> items
+) {
+}
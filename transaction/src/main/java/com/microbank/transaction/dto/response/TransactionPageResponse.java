@@ -0,0 +1,10 @@
+package com.microbank.transaction.dto.response;
+
+import java.util.List;
+
+public record TransactionPageResponse(
+        List<TransactionResponse> transactions,
+        String nextCursor,
+        boolean hasNext
+) {
+}
@@ -0,0 +1,7 @@
+package com.microbank.transaction.dto.response;
+
+public record TransferBalanceResponse(
+        AccountResponse senderAccount,
+        AccountResponse receiverAccount
+) {
+}
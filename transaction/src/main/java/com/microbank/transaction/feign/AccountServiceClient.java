@@ -1,12 +1,18 @@
 package com.microbank.transaction.feign;
 
 import com.microbank.transaction.config.FeignConfig;
+import com.microbank.transaction.dto.request.AccountLookupRequest;
+import com.microbank.transaction.dto.request.BatchTransferBalanceRequest;
+import com.microbank.transaction.dto.request.TransferBalanceRequest;
 import com.microbank.transaction.dto.request.UpdateBalanceRequest;
 import com.microbank.transaction.dto.response.AccountResponse;
+import com.microbank.transaction.dto.response.TransferBalanceItemResponse;
+import com.microbank.transaction.dto.response.TransferBalanceResponse;
 import com.microbank.transaction.response.BaseApiResponse;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 
@@ -32,9 +38,18 @@ public interface AccountServiceClient {
     @GetMapping("/{accountId}")
     BaseApiResponse<AccountResponse> getCurrentUsersAccountById(@PathVariable("accountId") UUID accountId);
 
+    @PostMapping("/lookup")
+    BaseApiResponse<List<AccountResponse>> lookupCurrentUsersAccounts(@RequestBody AccountLookupRequest request);
+
     @PutMapping("/balance")
     BaseApiResponse<AccountResponse> updateAccountBalance(@RequestBody UpdateBalanceRequest request);
 
+    @PutMapping("/balance/transfer")
+    BaseApiResponse<TransferBalanceResponse> transferBalance(@RequestBody TransferBalanceRequest request);
+
+    @PutMapping("/balance/transfer/batch")
+    BaseApiResponse<List<TransferBalanceItemResponse>> transferBalances(@RequestBody BatchTransferBalanceRequest request);
+
     @GetMapping("/admin/users/{userId}/accounts")
     BaseApiResponse<List<AccountResponse>> getAccountsByUserId(@PathVariable("userId") UUID userId);
 
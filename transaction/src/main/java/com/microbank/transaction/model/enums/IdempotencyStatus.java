@@ -0,0 +1,8 @@
+package com.microbank.transaction.model.enums;
+
+public enum IdempotencyStatus {
+    IN_PROGRESS,
+    COMPLETED,
+    // the transfer may have been applied by account-service, the key refuses retries until it expires
+    UNKNOWN
+}
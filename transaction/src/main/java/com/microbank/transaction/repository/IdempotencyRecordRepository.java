@@ -0,0 +1,31 @@
+package com.microbank.transaction.repository;
+
+import com.microbank.transaction.model.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO idempotency_keys (idempotency_key, request_hash, status, created_at, expires_at) " +
+            "VALUES (:key, :requestHash, 'IN_PROGRESS', :createdAt, :expiresAt) " +
+            "ON CONFLICT (idempotency_key) DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(
+            @Param("key") String key,
+            @Param("requestHash") String requestHash,
+            @Param("createdAt") LocalDateTime createdAt,
+            @Param("expiresAt") LocalDateTime expiresAt
+    );
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.expiresAt < :now")
+    int deleteAllExpired(@Param("now") LocalDateTime now);
+
+}
@@ -1,24 +1,99 @@
 package com.microbank.transaction.repository;
 
 import com.microbank.transaction.model.Transaction;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 public interface TransactionRepository extends JpaRepository<Transaction, UUID> {
 
     List<Transaction> findAllBySenderAccountId(UUID senderAccountId);
     List<Transaction> findAllBySenderAccountIdIn(List<UUID> senderAccountIds);
 
-    List<Transaction> findAllBySenderAccountIdInOrReceiverAccountIdIn(
-            List<UUID> senderAccountId,
-            List<UUID> receiverAccountIds
+    @Query("""
+            SELECT t FROM Transaction t
+            WHERE t.timestamp >= :from
+              AND (t.timestamp < :timestamp OR (t.timestamp = :timestamp AND t.id < :id))
+            ORDER BY t.timestamp DESC, t.id DESC
+            """)
+    List<Transaction> findPageBefore(
+            @Param("from") LocalDateTime from,
+            @Param("timestamp") LocalDateTime timestamp,
+            @Param("id") UUID id,
+            Limit limit
+    );
+
+    // Sender and receiver sides are read as two separate index range scans and merged,
+    // instead of an OR that the planner can only satisfy with a full table scan
+    @Query(value = """
+            SELECT * FROM (
+                (SELECT * FROM transactions
+                 WHERE sender_account_id = :accountId
+                   AND timestamp >= :from AND (timestamp, id) < (:timestamp, :id)
+                 ORDER BY timestamp DESC, id DESC
+                 LIMIT :limit)
+                UNION
+                (SELECT * FROM transactions
+                 WHERE receiver_account_id = :accountId
+                   AND timestamp >= :from AND (timestamp, id) < (:timestamp, :id)
+                 ORDER BY timestamp DESC, id DESC
+                 LIMIT :limit)
+            ) t
+            ORDER BY t.timestamp DESC, t.id DESC
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<Transaction> findPageByAccountIdBefore(
+            @Param("accountId") UUID accountId,
+            @Param("from") LocalDateTime from,
+            @Param("timestamp") LocalDateTime timestamp,
+            @Param("id") UUID id,
+            @Param("limit") int limit
     );
 
-    List<Transaction> findAllBySenderAccountIdOrReceiverAccountId(
-            UUID senderAccountId,
-            UUID receiverAccountId
+    @Query(value = """
+            SELECT * FROM (
+                (SELECT * FROM transactions
+                 WHERE sender_account_id IN (:accountIds)
+                   AND timestamp >= :from AND (timestamp, id) < (:timestamp, :id)
+                 ORDER BY timestamp DESC, id DESC
+                 LIMIT :limit)
+                UNION
+                (SELECT * FROM transactions
+                 WHERE receiver_account_id IN (:accountIds)
+                   AND timestamp >= :from AND (timestamp, id) < (:timestamp, :id)
+                 ORDER BY timestamp DESC, id DESC
+                 LIMIT :limit)
+            ) t
+            ORDER BY t.timestamp DESC, t.id DESC
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<Transaction> findPageByAccountIdsBefore(
+            @Param("accountIds") Collection<UUID> accountIds,
+            @Param("from") LocalDateTime from,
+            @Param("timestamp") LocalDateTime timestamp,
+            @Param("id") UUID id,
+            @Param("limit") int limit
     );
 
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HINT_CACHEABLE, value = "false")
+    })
+    @Query("SELECT t FROM Transaction t ORDER BY t.timestamp, t.id")
+    Stream<Transaction> streamAll();
+
 }
@@ -0,0 +1,24 @@
+package com.microbank.transaction.service;
+
+import com.microbank.transaction.dto.request.CreateTransactionRequest;
+import com.microbank.transaction.dto.response.TransactionResponse;
+import com.microbank.transaction.response.BaseApiResponse;
+import com.microbank.transaction.service.utils.IdempotencyContext;
+
+import java.util.function.Function;
+
+public interface IdempotencyService {
+
+    // runs the transfer once per key, repeated keys get the stored response back
+    BaseApiResponse<TransactionResponse> execute(
+            String idempotencyKey,
+            CreateTransactionRequest request,
+            Function<IdempotencyContext, BaseApiResponse<TransactionResponse>> transfer
+    );
+
+    // stores the response for the key, called inside the transaction that saves the transfer
+    void complete(IdempotencyContext context, BaseApiResponse<TransactionResponse> response);
+
+    void purgeExpiredKeys();
+
+}
@@ -0,0 +1,12 @@
+package com.microbank.transaction.service;
+
+public interface OutboxService {
+
+    // must be called inside the transaction that writes the state the event describes
+    void enqueue(String exchange, String routingKey, Object event);
+
+    void relayPendingEvents();
+
+    void purgePublishedEvents();
+
+}
@@ -1,25 +1,32 @@
 package com.microbank.transaction.service;
 
 import com.microbank.transaction.dto.event.TransactionEvent;
+import com.microbank.transaction.dto.request.CreateBatchTransactionRequest;
 import com.microbank.transaction.dto.request.CreateTransactionRequest;
+import com.microbank.transaction.dto.response.BatchTransactionResponse;
+import com.microbank.transaction.dto.response.TransactionPageResponse;
 import com.microbank.transaction.dto.response.TransactionResponse;
 import com.microbank.transaction.response.BaseApiResponse;
+import com.microbank.transaction.service.utils.IdempotencyContext;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 
-import java.util.List;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
 import java.util.UUID;
 
 public interface TransactionService {
 
-    BaseApiResponse<TransactionResponse> createTransaction(CreateTransactionRequest request);
-    BaseApiResponse<List<TransactionResponse>> getCurrentUsersAllTransactions();
+    BaseApiResponse<TransactionResponse> createTransaction(CreateTransactionRequest request, IdempotencyContext idempotency);
+    BaseApiResponse<BatchTransactionResponse> createTransactions(CreateBatchTransactionRequest request);
+    BaseApiResponse<TransactionPageResponse> getCurrentUsersAllTransactions(String cursor, Integer limit, LocalDateTime from);
     BaseApiResponse<TransactionResponse> getCurrentUsersTransactionById(UUID transactionId);
-    BaseApiResponse<List<TransactionResponse>> getCurrentUsersTransactionsByAccountId(UUID accountId);
+    BaseApiResponse<TransactionPageResponse> getCurrentUsersTransactionsByAccountId(UUID accountId, String cursor, Integer limit, LocalDateTime from);
 
-    BaseApiResponse<List<TransactionResponse>> getAllTransactions();
+    BaseApiResponse<TransactionPageResponse> getAllTransactions(String cursor, Integer limit, LocalDateTime from);
+    void exportAllTransactions(OutputStream outputStream);
     BaseApiResponse<TransactionResponse> getTransactionById(UUID transactionId);
-    BaseApiResponse<List<TransactionResponse>> getTransactionsByAccountId(UUID accountId);
-    BaseApiResponse<List<TransactionResponse>> getTransactionsByUserId(UUID userId);
+    BaseApiResponse<TransactionPageResponse> getTransactionsByAccountId(UUID accountId, String cursor, Integer limit, LocalDateTime from);
+    BaseApiResponse<TransactionPageResponse> getTransactionsByUserId(UUID userId, String cursor, Integer limit, LocalDateTime from);
 
 }
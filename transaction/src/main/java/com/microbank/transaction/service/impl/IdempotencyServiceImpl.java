@@ -0,0 +1,196 @@
+package com.microbank.transaction.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microbank.transaction.dto.request.CreateTransactionRequest;
+import com.microbank.transaction.dto.response.TransactionResponse;
+import com.microbank.transaction.exceptions.ConflictException;
+import com.microbank.transaction.exceptions.CustomException;
+import com.microbank.transaction.exceptions.UnauthorizedException;
+import com.microbank.transaction.model.IdempotencyRecord;
+import com.microbank.transaction.model.enums.IdempotencyStatus;
+import com.microbank.transaction.repository.IdempotencyRecordRepository;
+import com.microbank.transaction.response.BaseApiResponse;
+import com.microbank.transaction.service.IdempotencyService;
+import com.microbank.transaction.service.utils.IdempotencyContext;
+import feign.FeignException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.function.Function;
+
+@Service
+public class IdempotencyServiceImpl implements IdempotencyService {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyServiceImpl.class);
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final ObjectMapper objectMapper;
+
+    @Value("${transaction.idempotency.ttl:24h}")
+    private Duration ttl;
+
+    public IdempotencyServiceImpl(IdempotencyRecordRepository idempotencyRecordRepository, ObjectMapper objectMapper) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public BaseApiResponse<TransactionResponse> execute(
+            String idempotencyKey,
+            CreateTransactionRequest request,
+            Function<IdempotencyContext, BaseApiResponse<TransactionResponse>> transfer
+    ) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return transfer.apply(IdempotencyContext.none());
+        }
+
+        if (idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new CustomException("Idempotency-Key cannot be longer than " + MAX_KEY_LENGTH + " characters.");
+        }
+
+        // Keys are scoped per caller so two users can never collide on, or read, each other's responses
+        String scopedKey = currentSubject() + ":" + idempotencyKey;
+        String requestHash = hash(request);
+
+        while (true) {
+            LocalDateTime now = LocalDateTime.now();
+            IdempotencyRecord existing = idempotencyRecordRepository.findById(scopedKey).orElse(null);
+
+            if (existing == null) {
+                if (idempotencyRecordRepository.insertIfAbsent(scopedKey, requestHash, now, now.plus(ttl)) == 1) {
+                    break;
+                }
+                continue;
+            }
+
+            if (existing.getExpiresAt().isBefore(now)) {
+                idempotencyRecordRepository.delete(existing);
+                continue;
+            }
+
+            if (!existing.getRequestHash().equals(requestHash)) {
+                throw new CustomException("Idempotency-Key has already been used with a different request.");
+            }
+
+            if (existing.getStatus() == IdempotencyStatus.IN_PROGRESS) {
+                throw new ConflictException("A request with the same Idempotency-Key is still being processed.");
+            }
+
+            if (existing.getStatus() == IdempotencyStatus.UNKNOWN) {
+                throw new ConflictException("The outcome of the earlier request with this Idempotency-Key is unknown. "
+                        + "Check the account's transactions before sending the transfer again under a new key.");
+            }
+
+            return new BaseApiResponse<>(
+                    existing.getResponseStatus(),
+                    "Transaction already processed for the provided Idempotency-Key.",
+                    readResponse(existing.getResponseBody())
+            );
+        }
+
+        IdempotencyContext context = new IdempotencyContext(scopedKey);
+        try {
+            // the transfer stores the COMPLETED record through complete() in its own transaction
+            return transfer.apply(context);
+        } catch (RuntimeException e) {
+            if (!context.isTransferAttempted() || rejectedByAccountService(e)) {
+                // Nothing was debited, so the client can retry with the same key
+                idempotencyRecordRepository.deleteById(scopedKey);
+            } else {
+                markUnknown(scopedKey, e);
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public void complete(IdempotencyContext context, BaseApiResponse<TransactionResponse> response) {
+        if (!context.isEnabled()) {
+            return;
+        }
+
+        IdempotencyRecord record = idempotencyRecordRepository.findById(context.getScopedKey())
+                .orElseThrow(() -> new CustomException("Idempotency-Key record disappeared while processing."));
+        record.setStatus(IdempotencyStatus.COMPLETED);
+        record.setResponseStatus(response.getStatus());
+        record.setResponseBody(writeResponse(response.getData()));
+        idempotencyRecordRepository.save(record);
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${transaction.idempotency.cleanup-interval-ms:3600000}")
+    public void purgeExpiredKeys() {
+        int deleted = idempotencyRecordRepository.deleteAllExpired(LocalDateTime.now());
+        if (deleted > 0) {
+            log.info("Purged {} expired idempotency keys", deleted);
+        }
+    }
+
+    private void markUnknown(String scopedKey, RuntimeException cause) {
+        // account-service keeps no record of individual transfers, so there is nothing to reconcile against here;
+        // the key refuses retries until it expires and the error log is the trail for a manual check
+        log.error("Transfer for Idempotency-Key {} failed after it was sent to account-service, "
+                + "retries are refused until the key expires: {}", scopedKey, cause.getMessage());
+        try {
+            idempotencyRecordRepository.findById(scopedKey).ifPresent(record -> {
+                record.setStatus(IdempotencyStatus.UNKNOWN);
+                idempotencyRecordRepository.save(record);
+            });
+        } catch (RuntimeException e) {
+            // the record stays IN_PROGRESS, which also keeps retries away until it expires
+            log.error("Could not mark Idempotency-Key {} as unknown: {}", scopedKey, e.getMessage());
+        }
+    }
+
+    private static boolean rejectedByAccountService(RuntimeException e) {
+        // a 4xx answer means account-service refused the transfer and rolled its transaction back
+        return e instanceof FeignException.FeignClientException;
+    }
+
+    private String currentSubject() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || authentication.getName() == null) {
+            throw new UnauthorizedException("User not authenticated.");
+        }
+        return authentication.getName();
+    }
+
+    private String hash(CreateTransactionRequest request) {
+        try {
+            byte[] payload = objectMapper.writeValueAsBytes(request);
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(payload));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new CustomException("Error while hashing the transaction request.");
+        }
+    }
+
+    private String writeResponse(TransactionResponse response) {
+        try {
+            return objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException e) {
+            throw new CustomException("Error while storing the transaction response.");
+        }
+    }
+
+    private TransactionResponse readResponse(String body) {
+        try {
+            return body == null ? null : objectMapper.readValue(body, TransactionResponse.class);
+        } catch (Exception e) {
+            throw new CustomException("Error while reading the stored transaction response.");
+        }
+    }
+
+}
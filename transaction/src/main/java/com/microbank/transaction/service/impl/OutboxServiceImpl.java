@@ -0,0 +1,136 @@
+package com.microbank.transaction.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microbank.transaction.exceptions.CustomException;
+import com.microbank.transaction.model.OutboxEvent;
+import com.microbank.transaction.repository.OutboxEventRepository;
+import com.microbank.transaction.service.OutboxService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageBuilder;
+import org.springframework.amqp.core.MessageDeliveryMode;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Service
+public class OutboxServiceImpl implements OutboxService {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxServiceImpl.class);
+
+    // Header read by Jackson2JsonMessageConverter on the consuming side
+    private static final String TYPE_ID_HEADER = "__TypeId__";
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final RabbitTemplate rabbitTemplate;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${transaction.outbox.batch-size:100}")
+    private int batchSize;
+
+    @Value("${transaction.outbox.confirm-timeout:5s}")
+    private Duration confirmTimeout;
+
+    @Value("${transaction.outbox.retention:7d}")
+    private Duration retention;
+
+    public OutboxServiceImpl(
+            OutboxEventRepository outboxEventRepository,
+            RabbitTemplate rabbitTemplate,
+            ObjectMapper objectMapper,
+            PlatformTransactionManager transactionManager
+    ) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.rabbitTemplate = rabbitTemplate;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(String exchange, String routingKey, Object event) {
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new CustomException("Error while serializing the " + event.getClass().getSimpleName() + ".");
+        }
+
+        outboxEventRepository.save(new OutboxEvent(
+                exchange,
+                routingKey,
+                event.getClass().getName(),
+                payload,
+                LocalDateTime.now()
+        ));
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${transaction.outbox.relay-interval-ms:500}")
+    public void relayPendingEvents() {
+        try {
+            Integer published;
+            do {
+                published = transactionTemplate.execute(status -> publishBatch());
+            } while (published != null && published == batchSize);
+        } catch (RuntimeException e) {
+            // The batch stays unpublished and is picked up again on the next run
+            log.warn("Outbox relay failed, will retry: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${transaction.outbox.cleanup-interval-ms:3600000}")
+    public void purgePublishedEvents() {
+        int deleted = outboxEventRepository.deleteAllPublishedBefore(LocalDateTime.now().minus(retention));
+        if (deleted > 0) {
+            log.info("Purged {} published outbox events", deleted);
+        }
+    }
+
+    private int publishBatch() {
+        List<OutboxEvent> events = outboxEventRepository.lockPendingBatch(batchSize);
+        if (events.isEmpty()) {
+            return 0;
+        }
+
+        // One channel for the whole batch, confirmed once at the end instead of per message
+        rabbitTemplate.invoke(operations -> {
+            for (OutboxEvent event : events) {
+                operations.send(event.getExchange(), event.getRoutingKey(), toMessage(event));
+            }
+            operations.waitForConfirmsOrDie(confirmTimeout.toMillis());
+            return null;
+        });
+
+        List<UUID> ids = events.stream().map(OutboxEvent::getId).toList();
+        outboxEventRepository.markPublished(ids, LocalDateTime.now());
+        return events.size();
+    }
+
+    private Message toMessage(OutboxEvent event) {
+        return MessageBuilder.withBody(event.getPayload().getBytes(StandardCharsets.UTF_8))
+                .setContentType(MessageProperties.CONTENT_TYPE_JSON)
+                .setContentEncoding(StandardCharsets.UTF_8.name())
+                .setMessageId(event.getId().toString())
+                .setDeliveryMode(MessageDeliveryMode.PERSISTENT)
+                .setHeader(TYPE_ID_HEADER, event.getEventType())
+                .build();
+    }
+
+}
@@ -1,95 +1,131 @@
 package com.microbank.transaction.service.impl;
 
 import com.microbank.transaction.dto.event.TransactionEvent;
+import com.microbank.transaction.dto.request.AccountLookupRequest;
+import com.microbank.transaction.dto.request.BatchTransferBalanceRequest;
+import com.microbank.transaction.dto.request.CreateBatchTransactionRequest;
 import com.microbank.transaction.dto.request.CreateTransactionRequest;
-import com.microbank.transaction.dto.request.UpdateBalanceRequest;
+import com.microbank.transaction.dto.request.TransferBalanceRequest;
 import com.microbank.transaction.dto.response.AccountResponse;
+import com.microbank.transaction.dto.response.BatchTransactionItemResponse;
+import com.microbank.transaction.dto.response.BatchTransactionResponse;
+import com.microbank.transaction.dto.response.TransactionPageResponse;
 import com.microbank.transaction.dto.response.TransactionResponse;
+import com.microbank.transaction.dto.response.TransferBalanceItemResponse;
 import com.microbank.transaction.exceptions.CustomException;
 import com.microbank.transaction.exceptions.NotFoundException;
 import com.microbank.transaction.exceptions.UnauthorizedException;
 import com.microbank.transaction.feign.AccountServiceClient;
-import com.microbank.transaction.feign.AuthServiceClient;
 import com.microbank.transaction.model.Transaction;
 import com.microbank.transaction.repository.TransactionRepository;
 import com.microbank.transaction.response.BaseApiResponse;
+import com.microbank.transaction.service.IdempotencyService;
+import com.microbank.transaction.service.OutboxService;
 import com.microbank.transaction.service.TransactionService;
+import com.microbank.transaction.service.utils.CurrentUserResolver;
+import com.microbank.transaction.service.utils.IdempotencyContext;
+import com.microbank.transaction.service.utils.TransactionCursor;
+import com.microbank.transaction.service.utils.TransactionPartitionManager;
 import com.microbank.transaction.service.utils.TransactionResponseBuilder;
-import jakarta.transaction.Transactional;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.time.LocalDateTime;
-import java.util.List;
-import java.util.UUID;
+import java.time.YearMonth;
+import java.util.*;
+import java.util.stream.Stream;
 
 @Service
 public class TransactionServiceImpl implements TransactionService {
 
+    private static final UUID SMALLEST_ID = new UUID(0L, 0L);
+
     private final TransactionRepository transactionRepository;
     private final TransactionResponseBuilder transactionResponseBuilder;
-    private final RabbitTemplate rabbitTemplate;
+    private final OutboxService outboxService;
+    private final IdempotencyService idempotencyService;
     private final AccountServiceClient accountServiceClient;
-    private final AuthServiceClient authServiceClient;
+    private final CurrentUserResolver currentUserResolver;
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
+    private final TransactionPartitionManager transactionPartitionManager;
+    private final Validator validator;
+
+    @Value("${transaction.batch.max-size:500}")
+    private int maxBatchSize;
+
+    @Value("${transaction.pagination.default-limit:50}")
+    private int defaultPageLimit;
+
+    @Value("${transaction.pagination.max-limit:200}")
+    private int maxPageLimit;
+
+    @Value("${transaction.history.scan-window-months:3}")
+    private int scanWindowMonths;
 
     public TransactionServiceImpl(
             TransactionRepository transactionRepository,
             TransactionResponseBuilder transactionResponseBuilder,
-            RabbitTemplate rabbitTemplate,
+            OutboxService outboxService,
+            IdempotencyService idempotencyService,
             AccountServiceClient accountServiceClient,
-            AuthServiceClient authServiceClient
+            CurrentUserResolver currentUserResolver,
+            ObjectMapper objectMapper,
+            EntityManager entityManager,
+            TransactionPartitionManager transactionPartitionManager,
+            Validator validator
     ) {
         this.transactionRepository = transactionRepository;
         this.transactionResponseBuilder = transactionResponseBuilder;
-        this.rabbitTemplate = rabbitTemplate;
+        this.outboxService = outboxService;
+        this.idempotencyService = idempotencyService;
         this.accountServiceClient = accountServiceClient;
-        this.authServiceClient = authServiceClient;
+        this.currentUserResolver = currentUserResolver;
+        this.objectMapper = objectMapper;
+        this.entityManager = entityManager;
+        this.transactionPartitionManager = transactionPartitionManager;
+        this.validator = validator;
     }
 
     @Override
     @Transactional
-    public BaseApiResponse<TransactionResponse> createTransaction(CreateTransactionRequest request) {
+    public BaseApiResponse<TransactionResponse> createTransaction(CreateTransactionRequest request, IdempotencyContext idempotency) {
         request.validate();
 
-        var currentUser = authServiceClient.getCurrentUser();
-        if (currentUser == null || currentUser.getData() == null) {
-            throw new UnauthorizedException("User not authenticated.");
-        }
+        // rejects tokens that do not map to a registered user, resolved locally after the first request
+        currentUserResolver.getCurrentUser();
 
-        var senderAccountResponse = accountServiceClient.getCurrentUsersAccountById(request.senderAccountId());
-        if (senderAccountResponse == null || senderAccountResponse.getData() == null) {
+        if (findCurrentUsersAccounts(List.of(request.senderAccountId())).isEmpty()) {
             throw new UnauthorizedException("Source account does not belong to the current user.");
         }
 
-        AccountResponse senderAccount = accountServiceClient.getAccountById(request.senderAccountId()).getData();
-        AccountResponse receiverAccount;
-
-        if (request.receiverAccountId() != null) {
-            receiverAccount = accountServiceClient.getAccountById(request.receiverAccountId()).getData();
-        } else {
-            receiverAccount = accountServiceClient.getAccountByIban(request.receiverAccountIban()).getData();
-        }
-
-        if (senderAccount.balance().compareTo(request.amount()) < 0) {
-            throw new CustomException("Insufficient balance.");
-        }
-
-        accountServiceClient.updateAccountBalance(
-                new UpdateBalanceRequest(
-                        senderAccount.id(),
-                        request.amount(),
-                        false
+        // from here on account-service may have applied the transfer even if this call fails
+        idempotency.markTransferAttempted();
+        var transferResponse = accountServiceClient.transferBalance(
+                new TransferBalanceRequest(
+                        request.senderAccountId(),
+                        request.receiverAccountId(),
+                        request.receiverAccountIban(),
+                        request.amount()
                 )
         );
+        if (transferResponse == null || transferResponse.getData() == null) {
+            throw new CustomException("Balance transfer failed.");
+        }
 
-        accountServiceClient.updateAccountBalance(
-                new UpdateBalanceRequest(
-                        receiverAccount.id(),
-                        request.amount(),
-                        true
-                )
-        );
+        AccountResponse senderAccount = transferResponse.getData().senderAccount();
+        AccountResponse receiverAccount = transferResponse.getData().receiverAccount();
 
         Transaction transaction = new Transaction();
         transaction.setSenderAccountId(senderAccount.id());
@@ -99,38 +135,122 @@ public class TransactionServiceImpl implements TransactionService {
         transaction.setDescription(request.description());
         transactionRepository.save(transaction);
 
-        TransactionEvent event = new TransactionEvent(
-                transaction.getId(),
-                transaction.getSenderAccountId(),
-                transaction.getReceiverAccountId(),
-                senderAccount.ownerEmail(),
-                receiverAccount.ownerEmail(),
-                senderAccount.IBAN(),
-                receiverAccount.IBAN(),
-                senderAccount.ownerName(),
-                receiverAccount.ownerName(),
-                transaction.getAmount(),
-                transaction.getDescription(),
-                transaction.getTimestamp()
-        );
-
-        rabbitTemplate.convertAndSend("transaction-queue", event);
+        outboxService.enqueue("transaction-exchange", "", buildTransactionEvent(transaction, senderAccount, receiverAccount));
 
         TransactionResponse transactionResponse = transactionResponseBuilder.buildTransactionResponse(transaction);
-        return new BaseApiResponse<>(
+        BaseApiResponse<TransactionResponse> response = new BaseApiResponse<>(
                 HttpStatus.CREATED.value(),
                 "Transaction created successfully.",
                 transactionResponse
         );
+        idempotencyService.complete(idempotency, response);
+        return response;
     }
 
     @Override
-    public BaseApiResponse<List<TransactionResponse>> getCurrentUsersAllTransactions() {
-        var currentUser = authServiceClient.getCurrentUser();
-        if (currentUser == null || currentUser.getData() == null) {
-            throw new UnauthorizedException("User not authenticated.");
+    @Transactional
+    public BaseApiResponse<BatchTransactionResponse> createTransactions(CreateBatchTransactionRequest request) {
+        List<CreateTransactionRequest> items = request.transactions();
+        if (items.size() > maxBatchSize) {
+            throw new CustomException("A batch cannot contain more than " + maxBatchSize + " transactions.");
+        }
+
+        currentUserResolver.getCurrentUser();
+
+        // One ownership lookup for every sender in the batch instead of one account call per item
+        Set<UUID> senderAccountIds = new HashSet<>();
+        for (CreateTransactionRequest item : items) {
+            if (item != null && item.senderAccountId() != null) {
+                senderAccountIds.add(item.senderAccountId());
+            }
+        }
+        Set<UUID> ownedAccountIds = new HashSet<>();
+        findCurrentUsersAccounts(senderAccountIds).forEach(account -> ownedAccountIds.add(account.id()));
+
+        BatchTransactionItemResponse[] results = new BatchTransactionItemResponse[items.size()];
+        List<Integer> acceptedIndexes = new ArrayList<>();
+        List<TransferBalanceRequest> transfers = new ArrayList<>();
+
+        for (int i = 0; i < items.size(); i++) {
+            CreateTransactionRequest item = items.get(i);
+            try {
+                validateItem(item);
+                if (!ownedAccountIds.contains(item.senderAccountId())) {
+                    throw new UnauthorizedException("Source account does not belong to the current user.");
+                }
+            } catch (RuntimeException e) {
+                results[i] = new BatchTransactionItemResponse(i, false, null, e.getMessage());
+                continue;
+            }
+
+            acceptedIndexes.add(i);
+            transfers.add(new TransferBalanceRequest(
+                    item.senderAccountId(),
+                    item.receiverAccountId(),
+                    item.receiverAccountIban(),
+                    item.amount()
+            ));
         }
 
+        if (!transfers.isEmpty()) {
+            var transferResponse = accountServiceClient.transferBalances(new BatchTransferBalanceRequest(transfers));
+            if (transferResponse == null || transferResponse.getData() == null) {
+                throw new CustomException("Balance transfer failed.");
+            }
+
+            LocalDateTime timestamp = LocalDateTime.now();
+            List<TransferBalanceItemResponse> appliedTransfers = new ArrayList<>();
+            List<Transaction> transactions = new ArrayList<>();
+
+            for (TransferBalanceItemResponse transfer : transferResponse.getData()) {
+                int index = acceptedIndexes.get(transfer.index());
+                if (!transfer.success()) {
+                    results[index] = new BatchTransactionItemResponse(index, false, null, transfer.error());
+                    continue;
+                }
+
+                CreateTransactionRequest item = items.get(index);
+                Transaction transaction = new Transaction();
+                transaction.setSenderAccountId(transfer.senderAccount().id());
+                transaction.setReceiverAccountId(transfer.receiverAccount().id());
+                transaction.setAmount(item.amount());
+                transaction.setTimestamp(timestamp);
+                transaction.setDescription(item.description());
+                transactions.add(transaction);
+                appliedTransfers.add(transfer);
+            }
+
+            transactionRepository.saveAll(transactions);
+
+            for (int i = 0; i < transactions.size(); i++) {
+                Transaction transaction = transactions.get(i);
+                TransferBalanceItemResponse transfer = appliedTransfers.get(i);
+                int index = acceptedIndexes.get(transfer.index());
+
+                results[index] = new BatchTransactionItemResponse(
+                        index,
+                        true,
+                        transactionResponseBuilder.buildTransactionResponse(transaction),
+                        null
+                );
+                outboxService.enqueue("transaction-exchange", "", buildTransactionEvent(transaction, transfer.senderAccount(), transfer.receiverAccount()));
+            }
+        }
+
+        List<BatchTransactionItemResponse> itemResponses = Arrays.asList(results);
+        int succeeded = (int) itemResponses.stream().filter(BatchTransactionItemResponse::success).count();
+
+        return new BaseApiResponse<>(
+                HttpStatus.OK.value(),
+                "Batch processed: " + succeeded + " of " + items.size() + " transactions succeeded.",
+                new BatchTransactionResponse(items.size(), succeeded, items.size() - succeeded, itemResponses)
+        );
+    }
+
+    @Override
+    public BaseApiResponse<TransactionPageResponse> getCurrentUsersAllTransactions(String cursor, Integer limit, LocalDateTime from) {
+        currentUserResolver.getCurrentUser();
+
         var accountsResponse = accountServiceClient.getCurrentUsersAccounts();
         if (accountsResponse == null || accountsResponse.getData() == null || accountsResponse.getData().isEmpty()) {
             throw new NotFoundException("No accounts found for the current user.");
@@ -141,14 +261,16 @@ public class TransactionServiceImpl implements TransactionService {
                 .map(AccountResponse::id)
                 .toList();
 
-        List<Transaction> transactions = transactionRepository.findAllBySenderAccountIdInOrReceiverAccountIdIn(accountIds, accountIds);
-
-        List<TransactionResponse> transactionResponses = transactionResponseBuilder.buildTransactionResponses(transactions);
+        TransactionCursor position = TransactionCursor.decode(cursor);
+        int pageLimit = resolvePageLimit(limit);
+        List<Transaction> transactions = findPage(from, position, pageLimit + 1, (windowStart, timestamp, id, rows) ->
+                transactionRepository.findPageByAccountIdsBefore(accountIds, windowStart, timestamp, id, rows)
+        );
 
         return new BaseApiResponse<>(
                 HttpStatus.OK.value(),
                 "Transactions associated with the current user retrieved successfully.",
-                transactionResponses
+                buildPage(transactions, pageLimit)
         );
     }
 
@@ -180,38 +302,65 @@ public class TransactionServiceImpl implements TransactionService {
     }
 
     @Override
-    public BaseApiResponse<List<TransactionResponse>> getCurrentUsersTransactionsByAccountId(UUID accountId) {
-        var accountResponse = accountServiceClient.getCurrentUsersAccountById(accountId);
-        if (accountResponse == null || accountResponse.getData() == null) {
+    public BaseApiResponse<TransactionPageResponse> getCurrentUsersTransactionsByAccountId(UUID accountId, String cursor, Integer limit, LocalDateTime from) {
+        if (findCurrentUsersAccounts(List.of(accountId)).isEmpty()) {
             throw new UnauthorizedException("You are not authorized to access this account's transactions.");
         }
 
-        List<Transaction> transactions = transactionRepository.findAllBySenderAccountIdOrReceiverAccountId(accountId, accountId);
+        TransactionCursor position = TransactionCursor.decode(cursor);
+        int pageLimit = resolvePageLimit(limit);
+        List<Transaction> transactions = findPage(from, position, pageLimit + 1, (windowStart, timestamp, id, rows) ->
+                transactionRepository.findPageByAccountIdBefore(accountId, windowStart, timestamp, id, rows)
+        );
 
-        List<TransactionResponse> transactionResponses = transactionResponseBuilder.buildTransactionResponses(transactions);
         return new BaseApiResponse<>(
                 HttpStatus.OK.value(),
                 "Transactions associated with the current user's account with the ID: " + accountId + " retrieved successfully.",
-                transactionResponses
+                buildPage(transactions, pageLimit)
         );
     }
 
     @Override
-    public BaseApiResponse<List<TransactionResponse>> getAllTransactions() {
-        List<Transaction> transactions = transactionRepository.findAll();
+    public BaseApiResponse<TransactionPageResponse> getAllTransactions(String cursor, Integer limit, LocalDateTime from) {
+        TransactionCursor position = TransactionCursor.decode(cursor);
+        int pageLimit = resolvePageLimit(limit);
+        List<Transaction> transactions = findPage(from, position, pageLimit + 1, (windowStart, timestamp, id, rows) ->
+                transactionRepository.findPageBefore(windowStart, timestamp, id, Limit.of(rows))
+        );
 
-        if (transactions.isEmpty()) {
+        if (transactions.isEmpty() && position == TransactionCursor.FIRST_PAGE) {
             throw new NotFoundException("No transactions found.");
         }
 
-        List<TransactionResponse> transactionResponses = transactionResponseBuilder.buildTransactionResponses(transactions);
         return new BaseApiResponse<>(
                 HttpStatus.OK.value(),
                 "All transactions retrieved successfully.",
-                transactionResponses
+                buildPage(transactions, pageLimit)
         );
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public void exportAllTransactions(OutputStream outputStream) {
+        BufferedOutputStream out = new BufferedOutputStream(outputStream, 64 * 1024);
+
+        try (Stream<Transaction> transactions = transactionRepository.streamAll()) {
+            transactions.forEach(transaction -> {
+                try {
+                    out.write(objectMapper.writeValueAsBytes(transactionResponseBuilder.buildTransactionResponse(transaction)));
+                    out.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                // Rows already written are dropped from the persistence context to keep heap usage flat
+                entityManager.detach(transaction);
+            });
+            out.flush();
+        } catch (IOException | UncheckedIOException e) {
+            throw new CustomException("Error while exporting transactions.");
+        }
+    }
+
     @Override
     public BaseApiResponse<TransactionResponse> getTransactionById(UUID transactionId) {
         Transaction transaction = transactionRepository.findById(transactionId)
@@ -226,23 +375,26 @@ public class TransactionServiceImpl implements TransactionService {
     }
 
     @Override
-    public BaseApiResponse<List<TransactionResponse>> getTransactionsByAccountId(UUID accountId) {
-        List<Transaction> transactions = transactionRepository.findAllBySenderAccountIdOrReceiverAccountId(accountId, accountId);
+    public BaseApiResponse<TransactionPageResponse> getTransactionsByAccountId(UUID accountId, String cursor, Integer limit, LocalDateTime from) {
+        TransactionCursor position = TransactionCursor.decode(cursor);
+        int pageLimit = resolvePageLimit(limit);
+        List<Transaction> transactions = findPage(from, position, pageLimit + 1, (windowStart, timestamp, id, rows) ->
+                transactionRepository.findPageByAccountIdBefore(accountId, windowStart, timestamp, id, rows)
+        );
 
-        if (transactions.isEmpty()) {
+        if (transactions.isEmpty() && position == TransactionCursor.FIRST_PAGE) {
             throw new NotFoundException("No transactions found for the account with the ID: " + accountId);
         }
 
-        List<TransactionResponse> transactionResponses = transactionResponseBuilder.buildTransactionResponses(transactions);
         return new BaseApiResponse<>(
                 HttpStatus.OK.value(),
                 "Transactions associated with the account with the ID: " + accountId + " retrieved successfully.",
-                transactionResponses
+                buildPage(transactions, pageLimit)
         );
     }
 
     @Override
-    public BaseApiResponse<List<TransactionResponse>> getTransactionsByUserId(UUID userId) {
+    public BaseApiResponse<TransactionPageResponse> getTransactionsByUserId(UUID userId, String cursor, Integer limit, LocalDateTime from) {
         var accountsResponse = accountServiceClient.getAccountsByUserId(userId);
         if (accountsResponse == null || accountsResponse.getData() == null || accountsResponse.getData().isEmpty()) {
             throw new NotFoundException("No accounts found for user with ID: " + userId);
@@ -253,18 +405,129 @@ public class TransactionServiceImpl implements TransactionService {
                 .map(AccountResponse::id)
                 .toList();
 
-        List<Transaction> transactions = transactionRepository.findAllBySenderAccountIdInOrReceiverAccountIdIn(accountIds, accountIds);
+        TransactionCursor position = TransactionCursor.decode(cursor);
+        int pageLimit = resolvePageLimit(limit);
+        List<Transaction> transactions = findPage(from, position, pageLimit + 1, (windowStart, timestamp, id, rows) ->
+                transactionRepository.findPageByAccountIdsBefore(accountIds, windowStart, timestamp, id, rows)
+        );
 
-        if (transactions.isEmpty()) {
+        if (transactions.isEmpty() && position == TransactionCursor.FIRST_PAGE) {
             throw new NotFoundException("No transactions found for the user with ID: " + userId);
         }
 
-        List<TransactionResponse> transactionResponses = transactionResponseBuilder.buildTransactionResponses(transactions);
         return new BaseApiResponse<>(
                 HttpStatus.OK.value(),
                 "Transactions associated with the user with the ID: " + userId + " retrieved successfully.",
-                transactionResponses
+                buildPage(transactions, pageLimit)
+        );
+    }
+
+    private void validateItem(CreateTransactionRequest item) {
+        if (item == null) {
+            throw new CustomException("Transaction cannot be empty.");
+        }
+        Set<ConstraintViolation<CreateTransactionRequest>> violations = validator.validate(item);
+        if (!violations.isEmpty()) {
+            throw new CustomException(violations.iterator().next().getMessage());
+        }
+        item.validate();
+    }
+
+    private List<AccountResponse> findCurrentUsersAccounts(Collection<UUID> accountIds) {
+        if (accountIds.isEmpty()) {
+            return List.of();
+        }
+        // account-service leaves out accounts that do not exist or belong to someone else
+        var response = accountServiceClient.lookupCurrentUsersAccounts(
+                new AccountLookupRequest(List.copyOf(accountIds), List.of())
         );
+        return response == null || response.getData() == null ? List.of() : response.getData();
+    }
+
+    private int resolvePageLimit(Integer limit) {
+        if (limit == null) {
+            return defaultPageLimit;
+        }
+        if (limit < 1 || limit > maxPageLimit) {
+            throw new CustomException("Limit must be between 1 and " + maxPageLimit + ".");
+        }
+        return limit;
+    }
+
+    /**
+     * Reads one page of history in windows of whole months, newest first, so each query only visits the partitions
+     * of its window. The first window ends at the cursor and covers {@code transaction.history.scan-window-months};
+     * while the page is not full the next older window is read, each twice as long as the one before, down to
+     * {@code from} or the start of the retention period. A short page therefore really is the end of the history.
+     */
+    private List<Transaction> findPage(LocalDateTime from, TransactionCursor position, int rows, PageQuery query) {
+        LocalDateTime historyStart = transactionPartitionManager.getHistoryStart();
+        LocalDateTime lowerBound = from == null || from.isBefore(historyStart) ? historyStart : from;
+        if (scanWindowMonths <= 0) {
+            return query.find(lowerBound, position.timestamp(), position.id(), rows);
+        }
+
+        // the first page cursor lies far in the future, its window is anchored at the current month instead
+        LocalDateTime now = LocalDateTime.now();
+        YearMonth anchor = YearMonth.from(position.timestamp().isAfter(now) ? now : position.timestamp());
+        long windowMonths = scanWindowMonths;
+        LocalDateTime windowStart = max(lowerBound, anchor.minusMonths(windowMonths - 1).atDay(1).atStartOfDay());
+        List<Transaction> transactions = new ArrayList<>(
+                query.find(windowStart, position.timestamp(), position.id(), rows)
+        );
+
+        while (transactions.size() < rows && windowStart.isAfter(lowerBound)) {
+            LocalDateTime windowEnd = windowStart;
+            windowMonths *= 2;
+            windowStart = max(lowerBound, YearMonth.from(windowEnd).minusMonths(windowMonths).atDay(1).atStartOfDay());
+            // the smallest id makes the keyset bound exclusive of the whole window end instant
+            transactions.addAll(query.find(windowStart, windowEnd, SMALLEST_ID, rows - transactions.size()));
+        }
+        return transactions;
+    }
+
+    private static LocalDateTime max(LocalDateTime a, LocalDateTime b) {
+        return a.isAfter(b) ? a : b;
+    }
+
+    private TransactionPageResponse buildPage(List<Transaction> transactions, int pageLimit) {
+        // One extra row is fetched to tell whether another page exists without a count query
+        boolean hasNext = transactions.size() > pageLimit;
+        List<Transaction> page = hasNext ? transactions.subList(0, pageLimit) : transactions;
+        String nextCursor = hasNext ? TransactionCursor.after(page.get(page.size() - 1)).encode() : null;
+
+        return new TransactionPageResponse(
+                transactionResponseBuilder.buildTransactionResponses(page),
+                nextCursor,
+                hasNext
+        );
+    }
+
+    private TransactionEvent buildTransactionEvent(
+            Transaction transaction,
+            AccountResponse senderAccount,
+            AccountResponse receiverAccount
+    ) {
+        return new TransactionEvent(
+                transaction.getId(),
+                transaction.getSenderAccountId(),
+                transaction.getReceiverAccountId(),
+                senderAccount.ownerEmail(),
+                receiverAccount.ownerEmail(),
+                senderAccount.IBAN(),
+                receiverAccount.IBAN(),
+                senderAccount.ownerName(),
+                receiverAccount.ownerName(),
+                transaction.getAmount(),
+                transaction.getDescription(),
+                transaction.getTimestamp()
+        );
+    }
+
+    @FunctionalInterface
+    private interface PageQuery {
+
+        List<Transaction> find(LocalDateTime from, LocalDateTime beforeTimestamp, UUID beforeId, int rows);
     }
 
 }
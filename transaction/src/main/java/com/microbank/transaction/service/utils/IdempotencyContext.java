@@ -0,0 +1,41 @@
+package com.microbank.transaction.service.utils;
+
+/**
+ * Tracks one idempotent transfer while it runs.
+ * The transfer marks the point after which account-service may have moved money; failures before it release the key,
+ * failures after it block the key until it expires because retrying could debit the sender twice.
+ */
+public final class IdempotencyContext {
+
+    private static final IdempotencyContext NONE = new IdempotencyContext(null);
+
+    private final String scopedKey;
+    private boolean transferAttempted;
+
+    public IdempotencyContext(String scopedKey) {
+        this.scopedKey = scopedKey;
+    }
+
+    public static IdempotencyContext none() {
+        return NONE;
+    }
+
+    public String getScopedKey() {
+        return scopedKey;
+    }
+
+    public boolean isEnabled() {
+        return scopedKey != null;
+    }
+
+    public boolean isTransferAttempted() {
+        return transferAttempted;
+    }
+
+    public void markTransferAttempted() {
+        if (isEnabled()) {
+            transferAttempted = true;
+        }
+    }
+
+}
@@ -0,0 +1,48 @@
+package com.microbank.transaction.service.utils;
+
+import com.microbank.transaction.exceptions.CustomException;
+import com.microbank.transaction.model.Transaction;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Opaque keyset position in a transaction history ordered by (timestamp, id) descending.
+ * The first page uses a sentinel placed after every real row so all pages share one query.
+ */
+public record TransactionCursor(LocalDateTime timestamp, UUID id) {
+
+    public static final TransactionCursor FIRST_PAGE = new TransactionCursor(
+            LocalDateTime.of(9999, 12, 31, 23, 59, 59),
+            new UUID(-1L, -1L)
+    );
+
+    public static TransactionCursor after(Transaction transaction) {
+        return new TransactionCursor(transaction.getTimestamp(), transaction.getId());
+    }
+
+    public static TransactionCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return FIRST_PAGE;
+        }
+
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = decoded.indexOf('|');
+            return new TransactionCursor(
+                    LocalDateTime.parse(decoded.substring(0, separator)),
+                    UUID.fromString(decoded.substring(separator + 1))
+            );
+        } catch (RuntimeException e) {
+            throw new CustomException("Invalid pagination cursor.");
+        }
+    }
+
+    public String encode() {
+        String raw = timestamp + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+}
@@ -0,0 +1,109 @@
+package com.microbank.transaction.service.utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Maintains the monthly range partitions of the {@code transactions} table.
+ * Partitions are created a few months ahead so inserts never land in the default partition,
+ * and months older than the retention window are detached (kept as standalone tables for archiving).
+ */
+@Component
+public class TransactionPartitionManager {
+
+    private static final Logger log = LoggerFactory.getLogger(TransactionPartitionManager.class);
+
+    private static final Pattern PARTITION_NAME = Pattern.compile("^transactions_p(\\d{4})_(\\d{2})$");
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int monthsAhead;
+    private final int retentionMonths;
+
+    public TransactionPartitionManager(
+            JdbcTemplate jdbcTemplate,
+            @Value("${transaction.partitioning.months-ahead:3}") int monthsAhead,
+            @Value("${transaction.partitioning.retention-months:0}") int retentionMonths
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.monthsAhead = Math.max(1, monthsAhead);
+        this.retentionMonths = Math.max(0, retentionMonths);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${transaction.partitioning.cron:0 0 3 * * *}")
+    public void maintainPartitions() {
+        createUpcomingPartitions();
+        detachExpiredPartitions();
+    }
+
+    /**
+     * Lower bound for history queries. Giving the planner an explicit range lets it prune
+     * every partition outside the retention window instead of probing each of them.
+     */
+    public LocalDateTime getHistoryStart() {
+        if (retentionMonths == 0) {
+            return LocalDate.of(1970, 1, 1).atStartOfDay();
+        }
+        return YearMonth.now().minusMonths(retentionMonths).atDay(1).atStartOfDay();
+    }
+
+    private void createUpcomingPartitions() {
+        YearMonth current = YearMonth.now();
+        for (int i = 0; i <= monthsAhead; i++) {
+            YearMonth month = current.plusMonths(i);
+            jdbcTemplate.execute(
+                    "CREATE TABLE IF NOT EXISTS " + partitionName(month) +
+                    " PARTITION OF transactions FOR VALUES FROM ('" + month.atDay(1) +
+                    "') TO ('" + month.plusMonths(1).atDay(1) + "')"
+            );
+        }
+    }
+
+    private void detachExpiredPartitions() {
+        if (retentionMonths == 0) {
+            return;
+        }
+
+        YearMonth oldestRetained = YearMonth.now().minusMonths(retentionMonths);
+        List<String> partitions = jdbcTemplate.queryForList("""
+                SELECT child.relname
+                FROM pg_inherits
+                JOIN pg_class parent ON parent.oid = pg_inherits.inhparent
+                JOIN pg_class child ON child.oid = pg_inherits.inhrelid
+                WHERE parent.relname = 'transactions'
+                """, String.class);
+
+        for (String partition : partitions) {
+            Matcher matcher = PARTITION_NAME.matcher(partition);
+            if (!matcher.matches()) {
+                continue;
+            }
+
+            YearMonth month = YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)));
+            if (month.isBefore(oldestRetained)) {
+                jdbcTemplate.execute("ALTER TABLE transactions DETACH PARTITION " + partition);
+                log.info("Detached transaction partition {} (older than {} months)", partition, retentionMonths);
+            }
+        }
+    }
+
+    private static String partitionName(YearMonth month) {
+        return "transactions_p" + month.format(PARTITION_SUFFIX);
+    }
+
+}
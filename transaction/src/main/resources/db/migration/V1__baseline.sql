@@ -0,0 +1,10 @@
+-- Schema as previously generated by hibernate ddl-auto. Existing databases are baselined at this version
+-- and never run it, so every table added later belongs in a migration of its own.
+CREATE TABLE IF NOT EXISTS transactions (
+    id                  UUID           NOT NULL PRIMARY KEY,
+    sender_account_id   UUID           NOT NULL,
+    receiver_account_id UUID           NOT NULL,
+    amount              NUMERIC(19, 4) NOT NULL,
+    timestamp           TIMESTAMP(6)   NOT NULL,
+    description         VARCHAR(500)
+);
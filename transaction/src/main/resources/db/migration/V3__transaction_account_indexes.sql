@@ -0,0 +1,10 @@
+-- Each side of the account lookup gets its own range scan in (timestamp, id) order,
+-- which matches the keyset pagination order used by the history endpoints
+CREATE INDEX IF NOT EXISTS idx_transactions_sender_timestamp
+    ON transactions (sender_account_id, timestamp DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS idx_transactions_receiver_timestamp
+    ON transactions (receiver_account_id, timestamp DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS idx_transactions_timestamp
+    ON transactions (timestamp DESC, id DESC);
@@ -0,0 +1,52 @@
+-- Rebuild transactions as a table range-partitioned by month on timestamp.
+-- The partition key has to be part of the primary key, hence (id, timestamp).
+ALTER TABLE transactions RENAME TO transactions_unpartitioned;
+
+CREATE TABLE transactions (
+    id                  UUID           NOT NULL,
+    sender_account_id   UUID           NOT NULL,
+    receiver_account_id UUID           NOT NULL,
+    amount              NUMERIC(19, 4) NOT NULL,
+    timestamp           TIMESTAMP(6)   NOT NULL,
+    description         VARCHAR(500),
+    PRIMARY KEY (id, timestamp)
+) PARTITION BY RANGE (timestamp);
+
+-- Catches rows outside every monthly partition so inserts never fail; the scheduled
+-- partition job keeps it empty by creating months ahead of time
+CREATE TABLE transactions_default PARTITION OF transactions DEFAULT;
+
+DO $$
+DECLARE
+    month_start DATE := date_trunc('month', coalesce(
+            (SELECT min(timestamp) FROM transactions_unpartitioned),
+            now()))::date;
+    last_month  DATE := (date_trunc('month', now()) + interval '3 months')::date;
+BEGIN
+    WHILE month_start <= last_month LOOP
+        EXECUTE format(
+                'CREATE TABLE IF NOT EXISTS %I PARTITION OF transactions FOR VALUES FROM (%L) TO (%L)',
+                'transactions_p' || to_char(month_start, 'YYYY_MM'),
+                month_start,
+                (month_start + interval '1 month')::date
+        );
+        month_start := (month_start + interval '1 month')::date;
+    END LOOP;
+END
+$$;
+
+INSERT INTO transactions (id, sender_account_id, receiver_account_id, amount, timestamp, description)
+SELECT id, sender_account_id, receiver_account_id, amount, timestamp, description
+FROM transactions_unpartitioned;
+
+DROP TABLE transactions_unpartitioned;
+
+-- Declared on the parent so every current and future partition gets them
+CREATE INDEX idx_transactions_sender_timestamp
+    ON transactions (sender_account_id, timestamp DESC, id DESC);
+
+CREATE INDEX idx_transactions_receiver_timestamp
+    ON transactions (receiver_account_id, timestamp DESC, id DESC);
+
+CREATE INDEX idx_transactions_timestamp
+    ON transactions (timestamp DESC, id DESC);
@@ -0,0 +1,18 @@
+CREATE TABLE IF NOT EXISTS outbox_events (
+    id           UUID         NOT NULL PRIMARY KEY,
+    exchange     VARCHAR(255) NOT NULL,
+    routing_key  VARCHAR(255) NOT NULL,
+    event_type   VARCHAR(255) NOT NULL,
+    payload      TEXT         NOT NULL,
+    created_at   TIMESTAMP(6) NOT NULL,
+    published_at TIMESTAMP(6)
+);
+
+-- The relay only ever looks at unpublished rows, oldest first
+CREATE INDEX IF NOT EXISTS idx_outbox_events_pending
+    ON outbox_events (created_at)
+    WHERE published_at IS NULL;
+
+CREATE INDEX IF NOT EXISTS idx_outbox_events_published_at
+    ON outbox_events (published_at)
+    WHERE published_at IS NOT NULL;
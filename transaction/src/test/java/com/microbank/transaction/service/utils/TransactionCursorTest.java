@@ -0,0 +1,61 @@
+package com.microbank.transaction.service.utils;
+
+import com.microbank.transaction.exceptions.CustomException;
+import com.microbank.transaction.model.Transaction;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TransactionCursorTest {
+
+    @Test
+    void encodeAndDecodeRoundTrip() {
+        TransactionCursor cursor = new TransactionCursor(
+                LocalDateTime.of(2026, 3, 14, 15, 9, 26, 535_000_000),
+                UUID.fromString("7f1c2a4e-3b6d-4e8f-9a0b-1c2d3e4f5a6b")
+        );
+
+        String encoded = cursor.encode();
+
+        assertThat(encoded).doesNotContain("=", "+", "/");
+        assertThat(TransactionCursor.decode(encoded)).isEqualTo(cursor);
+    }
+
+    @Test
+    void afterPointsAtTheGivenTransaction() {
+        Transaction transaction = new Transaction();
+        transaction.setId(UUID.randomUUID());
+        transaction.setTimestamp(LocalDateTime.of(2026, 1, 1, 0, 0));
+
+        TransactionCursor cursor = TransactionCursor.after(transaction);
+
+        assertThat(cursor.timestamp()).isEqualTo(transaction.getTimestamp());
+        assertThat(cursor.id()).isEqualTo(transaction.getId());
+    }
+
+    @Test
+    void missingCursorDecodesToTheFirstPageSentinel() {
+        assertThat(TransactionCursor.decode(null)).isSameAs(TransactionCursor.FIRST_PAGE);
+        assertThat(TransactionCursor.decode("")).isSameAs(TransactionCursor.FIRST_PAGE);
+        assertThat(TransactionCursor.decode("  ")).isSameAs(TransactionCursor.FIRST_PAGE);
+    }
+
+    @Test
+    void firstPageSentinelSortsAfterEveryRealRow() {
+        LocalDateTime farFuture = LocalDateTime.of(9000, 1, 1, 0, 0);
+
+        assertThat(TransactionCursor.FIRST_PAGE.timestamp()).isAfter(farFuture);
+        assertThat(TransactionCursor.FIRST_PAGE.id().toString()).isEqualTo("ffffffff-ffff-ffff-ffff-ffffffffffff");
+    }
+
+    @Test
+    void malformedCursorsAreRejected() {
+        assertThatThrownBy(() -> TransactionCursor.decode("not a cursor")).isInstanceOf(CustomException.class);
+        assertThatThrownBy(() -> TransactionCursor.decode("bm8tc2VwYXJhdG9y")).isInstanceOf(CustomException.class);
+    }
+
+}